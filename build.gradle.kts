@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id("org.jetbrains.intellij") version "1.13.3"
+    id("me.champeau.jmh") version "0.7.1"
 }
 
 group = "com.example"
@@ -16,12 +17,24 @@ dependencies {
     testImplementation("org.mockito:mockito-core:5.2.0")
     testImplementation("org.mockito:mockito-junit-jupiter:5.2.0")
     testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.9.2")
+    testRuntimeOnly("org.junit.vintage:junit-vintage-engine:5.9.2")
 }
 
 tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+// Benchmarks, in src/jmh. They share the corpus and the legacy implementations of the tests, and the benchmarks of the
+// PSI code run in a light test project, in a JVM configured as the one of the tests.
+jmh {
+    includeTests.set(true)
+    jvmArgsAppend.addAll(provider { tasks.test.get().allJvmArgs })
+    profilers.set(listOf("gc"))
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+}
+
 // Configure Gradle IntelliJ Plugin
 // Read more: https://plugins.jetbrains.com/docs/intellij/tools-gradle-intellij-plugin.html
 intellij {
@@ -52,4 +65,11 @@ tasks {
     publishPlugin {
         token.set(System.getenv("PUBLISH_TOKEN"))
     }
+
+    // Runs the headless generator, for instance: ./gradlew runMockitoGen -PmockitoGenArgs="check /path/to/project"
+    register<org.jetbrains.intellij.tasks.RunIdeTask>("runMockitoGen") {
+        val mockitoGenArgs = (project.findProperty("mockitoGenArgs") as String?).orEmpty()
+        args = listOf("mockitoGen") + mockitoGenArgs.split(" ").filter { it.isNotBlank() }
+        jvmArgs("-Djava.awt.headless=true")
+    }
 }
@@ -0,0 +1,97 @@
+package com.pelletier197.plugin.codegen;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.EdtTestUtil;
+import com.intellij.testFramework.fixtures.IdeaProjectTestFixture;
+import com.intellij.testFramework.fixtures.IdeaTestFixtureFactory;
+import com.intellij.testFramework.fixtures.JavaCodeInsightTestFixture;
+import com.intellij.testFramework.fixtures.JavaTestFixtureFactory;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.intellij.testFramework.fixtures.TestFixtureBuilder;
+import com.pelletier197.plugin.codegen.plan.GenerationPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the time needed to apply the same plan in each {@link GenerationPlanApplier.Mode} on a class under test
+ * with many methods. The plan is applied in a light test project, whose test file is configured again before each
+ * invocation. Run with <code>./gradlew jmh</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GenerationPlanApplierBenchmark {
+  private static final int METHOD_COUNT = 200;
+
+  private static final String TEST_FILE_NAME = "FacadeTest.java";
+  private static final String TEST_FILE_TEXT = "package bench;\n\nclass FacadeTest {\n}\n";
+
+  @Param({"PER_ELEMENT", "TEMPLATE"})
+  public GenerationPlanApplier.Mode mode;
+
+  private JavaCodeInsightTestFixture fixture;
+  private GenerationPlanApplier applier;
+  private PsiJavaFile testFile;
+  private GenerationPlan plan;
+
+  @Setup(Level.Trial)
+  public void setUpProject() {
+    TestFixtureBuilder<IdeaProjectTestFixture> projectBuilder = IdeaTestFixtureFactory.getFixtureFactory()
+            .createLightFixtureBuilder(LightJavaCodeInsightFixtureTestCase.JAVA_17, getClass().getSimpleName());
+    fixture = JavaTestFixtureFactory.getFixtureFactory().createCodeInsightFixture(projectBuilder.getFixture());
+
+    EdtTestUtil.runInEdtAndWait(() -> {
+      fixture.setUp();
+      fixture.addClass("package bench;\npublic enum Status { ACTIVE, INACTIVE }");
+      fixture.addClass("package bench;\npublic class Repository {}");
+      fixture.addClass(createUnderTestClass());
+    });
+    applier = new GenerationPlanApplier(JavaPsiFacade.getInstance(fixture.getProject()), mode);
+  }
+
+  @Setup(Level.Invocation)
+  public void setUpTestFile() {
+    EdtTestUtil.runInEdtAndWait(() -> {
+      testFile = (PsiJavaFile) fixture.configureByText(TEST_FILE_NAME, TEST_FILE_TEXT);
+      plan = new GenerationPlanner().plan(testFile);
+    });
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDownProject() {
+    EdtTestUtil.runInEdtAndWait(() -> fixture.tearDown());
+  }
+
+  @Benchmark
+  public void apply() {
+    EdtTestUtil.runInEdtAndWait(() ->
+            WriteCommandAction.runWriteCommandAction(fixture.getProject(), () -> applier.apply(testFile, plan)));
+  }
+
+  private static String createUnderTestClass() {
+    StringBuilder builder = new StringBuilder("package bench;\n\npublic class Facade {\n")
+            .append("  private Repository repository;\n")
+            .append("  private String name;\n");
+    for (int i = 0; i < METHOD_COUNT; i++) {
+      builder.append("  public void process").append(i)
+              .append("(Repository repository").append(i)
+              .append(", String label").append(i)
+              .append(", Status status").append(i)
+              .append(", int count").append(i)
+              .append(") {}\n");
+    }
+    return builder.append("}\n").toString();
+  }
+}
@@ -0,0 +1,52 @@
+package com.pelletier197.plugin.codegen.naming;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link NamingEngine} with the legacy naming on the names of the corpus. Run with
+ * <code>./gradlew jmh</code>; the allocation rate of each benchmark is reported by the GC profiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NamingEngineBenchmark {
+  private final List<String> methodNames = NamingCorpus.METHOD_NAMES;
+  private final List<String> variableNames = NamingCorpus.VARIABLE_NAMES;
+
+  @Benchmark
+  public void whenClassName(Blackhole blackhole) {
+    for (String methodName : methodNames) {
+      blackhole.consume(NamingEngine.whenClassName(methodName));
+    }
+  }
+
+  @Benchmark
+  public void legacyWhenClassName(Blackhole blackhole) {
+    for (String methodName : methodNames) {
+      blackhole.consume(LegacyNaming.whenClassName(methodName));
+    }
+  }
+
+  @Benchmark
+  public void constantName(Blackhole blackhole) {
+    for (String variableName : variableNames) {
+      blackhole.consume(NamingEngine.constantName(variableName));
+    }
+  }
+
+  @Benchmark
+  public void legacyConstantName(Blackhole blackhole) {
+    for (String variableName : variableNames) {
+      blackhole.consume(LegacyNaming.constantName(variableName));
+    }
+  }
+}
@@ -2,39 +2,79 @@ package com.pelletier197.plugin.action;
 
 import com.intellij.openapi.actionSystem.CommonDataKeys;
 import com.intellij.openapi.actionSystem.DataContext;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.editor.Caret;
 import com.intellij.openapi.editor.Editor;
-import com.intellij.openapi.editor.actionSystem.EditorWriteActionHandler;
+import com.intellij.openapi.editor.actionSystem.EditorActionHandler;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiJavaFile;
-import com.intellij.psi.codeStyle.JavaCodeStyleManager;
-import com.pelletier197.plugin.codegen.FieldsCodeInjector;
-import com.pelletier197.plugin.codegen.NestedInnerTestClassInjector;
-import com.pelletier197.plugin.codegen.RunnerCodeInjector;
-import com.pelletier197.plugin.codegen.ImportOrganizer;
-import com.pelletier197.plugin.codegen.StaticImportsInjector;
-import com.pelletier197.plugin.codegen.utils.CommonCodeInjector;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.pelletier197.plugin.codegen.GeneratedCodeFormatter;
+import com.pelletier197.plugin.codegen.GenerationPlanApplier;
+import com.pelletier197.plugin.codegen.GenerationPlanner;
+import com.pelletier197.plugin.codegen.plan.GenerationPlan;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-public class GenMockitoActionHandler extends EditorWriteActionHandler {
+/**
+ * Generates the missing Mockito code in two phases. The generation plan is computed in a cancellable, non-blocking
+ * read action on a background thread, and then applied in a single write command on the EDT. If the PSI changed
+ * between both phases, the plan is discarded and computed again. The generated code is shortened and reformatted
+ * once, by the {@link GeneratedCodeFormatter}, in the same command.
+ * <p>
+ * Generations requested while the project is indexing are queued in the {@link GenerationQueue}, and run once
+ * indexing completes.
+ */
+public class GenMockitoActionHandler extends EditorActionHandler {
+
+  public static final String COMMAND_NAME = "Add Mockito JUnit 5 Code";
 
   @Override
-  public void executeWriteAction(Editor editor, Caret caret, DataContext dataContext) {
+  protected void doExecute(@NotNull Editor editor, @Nullable Caret caret, DataContext dataContext) {
     PsiJavaFile psiJavaFile = (PsiJavaFile) dataContext.getData(CommonDataKeys.PSI_FILE.getName());
+    if (psiJavaFile == null) {
+      return;
+    }
+
+    generate(psiJavaFile);
+  }
+
+  private void generate(PsiJavaFile psiJavaFile) {
+    Project project = psiJavaFile.getProject();
+    if (DumbService.isDumb(project)) {
+      // Classes can not be resolved while indexing, which would only generate part of the code
+      GenerationQueue.getInstance(project).enqueue(psiJavaFile, this::generate);
+      return;
+    }
+
+    ReadAction.nonBlocking(() -> new GenerationPlanner().plan(psiJavaFile))
+            .inSmartMode(project)
+            .withDocumentsCommitted(project)
+            .expireWhen(() -> project.isDisposed() || !psiJavaFile.isValid())
+            .coalesceBy(this, psiJavaFile)
+            .finishOnUiThread(ModalityState.defaultModalityState(), plan -> apply(psiJavaFile, plan))
+            .submit(AppExecutorUtil.getAppExecutorService());
+  }
+
+  private void apply(PsiJavaFile psiJavaFile, GenerationPlan plan) {
+    if (plan.isEmpty()) {
+      return;
+    }
+
     Project project = psiJavaFile.getProject();
-    JavaPsiFacade javaPsiFacade = JavaPsiFacade.getInstance(project);
-    ImportOrganizer importOrganizer = new ImportOrganizer(JavaPsiFacade.getInstance(project));
-    JavaCodeStyleManager codeStyleManager = JavaCodeStyleManager.getInstance(project);
-    CommonCodeInjector commonCodeInjector = new CommonCodeInjector(javaPsiFacade, psiJavaFile, importOrganizer, codeStyleManager);
-
-
-    RunnerCodeInjector runnerCodeInjector = new RunnerCodeInjector(psiJavaFile, importOrganizer);
-    runnerCodeInjector.inject();
-    FieldsCodeInjector fieldsCodeInjector = new FieldsCodeInjector(psiJavaFile, importOrganizer, commonCodeInjector);
-    fieldsCodeInjector.inject();
-    NestedInnerTestClassInjector innerTestClassInjector = new NestedInnerTestClassInjector(psiJavaFile, importOrganizer, commonCodeInjector);
-    innerTestClassInjector.inject();
-    StaticImportsInjector staticImportsInjector = new StaticImportsInjector(psiJavaFile, importOrganizer);
-    staticImportsInjector.inject();
+    if (!GenerationPlanner.isUpToDate(psiJavaFile, plan) || DumbService.isDumb(project)) {
+      generate(psiJavaFile);
+      return;
+    }
+
+    GenerationPlanApplier applier = new GenerationPlanApplier(JavaPsiFacade.getInstance(project));
+    GeneratedCodeFormatter formatter = new GeneratedCodeFormatter(project);
+    WriteCommandAction.writeCommandAction(project, psiJavaFile)
+            .withName(COMMAND_NAME)
+            .run(() -> formatter.format(psiJavaFile, applier.apply(psiJavaFile, plan)));
   }
 }
@@ -0,0 +1,60 @@
+package com.pelletier197.plugin.action;
+
+import com.intellij.notification.NotificationGroupManager;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.pelletier197.plugin.bulk.BulkGenerationResult;
+import com.pelletier197.plugin.bulk.BulkGenerator;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Generates the Mockito code of all the test files found in the files, directories or modules selected in the
+ * project view.
+ */
+public class GenMockitoBulkAction extends AnAction {
+  public static final String NOTIFICATION_GROUP_ID = "Mockito JUnit 5 Code Generator";
+
+  @Override
+  public @NotNull ActionUpdateThread getActionUpdateThread() {
+    return ActionUpdateThread.BGT;
+  }
+
+  @Override
+  public void update(@NotNull AnActionEvent e) {
+    VirtualFile[] selection = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+    e.getPresentation().setEnabledAndVisible(e.getProject() != null && selection != null && selection.length > 0);
+  }
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent e) {
+    Project project = e.getProject();
+    VirtualFile[] selection = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+    if (project == null || selection == null) {
+      return;
+    }
+
+    new Task.Backgroundable(project, "Generating Mockito JUnit 5 code", true) {
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        indicator.setText("Collecting test files");
+        List<VirtualFile> testFiles = DumbService.getInstance(project).runReadActionInSmartMode(() -> BulkGenerator.collectTestFiles(project, selection));
+        BulkGenerationResult result = new BulkGenerator(project).generate(testFiles, indicator);
+
+        NotificationGroupManager.getInstance()
+                .getNotificationGroup(NOTIFICATION_GROUP_ID)
+                .createNotification(result.getSummary(), NotificationType.INFORMATION)
+                .notify(project);
+      }
+    }.queue();
+  }
+}
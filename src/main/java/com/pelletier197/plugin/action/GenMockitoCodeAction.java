@@ -1,11 +1,27 @@
 package com.pelletier197.plugin.action;
 
+import com.intellij.lang.java.JavaLanguage;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
 import com.intellij.openapi.actionSystem.CommonDataKeys;
 import com.intellij.openapi.actionSystem.DataContext;
 import com.intellij.openapi.actionSystem.Presentation;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.actionSystem.EditorAction;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.pelletier197.plugin.codegen.GenerationContext;
+import com.pelletier197.plugin.codegen.analysis.MissingCodeCheck;
+import com.pelletier197.plugin.codegen.utils.MockitoPluginUtils;
+import com.pelletier197.plugin.codegen.value.ValueProviderRegistry;
+import com.pelletier197.plugin.metrics.GenerationMetrics;
+import com.pelletier197.plugin.settings.MockitoGenSettings;
+import org.jetbrains.annotations.NotNull;
 
 public class GenMockitoCodeAction extends EditorAction {
 
@@ -15,13 +31,48 @@ public class GenMockitoCodeAction extends EditorAction {
     super(new GenMockitoActionHandler());
   }
 
+  @Override
+  public @NotNull ActionUpdateThread getActionUpdateThread() {
+    return ActionUpdateThread.BGT;
+  }
+
   @Override
   public void update(Editor editor, Presentation presentation, DataContext dataContext) {
     PsiFile psiFile = (PsiFile) dataContext.getData(CommonDataKeys.PSI_FILE.getName());
     boolean enabled = false;
-    if (psiFile != null) {
-      enabled = psiFile.getName().endsWith(TEST_JAVA_FILE_NAME_SUFFIX);
+    if (psiFile instanceof PsiJavaFile psiJavaFile && psiFile.getName().endsWith(TEST_JAVA_FILE_NAME_SUFFIX)) {
+      // While indexing, the generation is queued until it completes
+      enabled = DumbService.isDumb(psiFile.getProject()) || hasMissingCode(psiJavaFile);
     }
     presentation.setEnabled(enabled);
   }
+
+  /**
+   * Checks whether the class under test exists and some code is missing from the test file, through the cheap
+   * {@link MissingCodeCheck} rather than a full generation. The answer is cached until the test file, the Java
+   * structure of the project, the settings or the value providers change. The check is not recorded by the
+   * {@link GenerationMetrics}, since it runs whenever the menus are shown.
+   */
+  static boolean hasMissingCode(PsiJavaFile psiJavaFile) {
+    return CachedValuesManager.getCachedValue(psiJavaFile, () -> {
+      Project project = psiJavaFile.getProject();
+      Object[] dependencies = {
+              psiJavaFile,
+              PsiModificationTracker.getInstance(project).forLanguage(JavaLanguage.INSTANCE),
+              MockitoGenSettings.getInstance(project),
+              ValueProviderRegistry.getInstance(project)
+      };
+
+      PsiClass testClass = MockitoPluginUtils.findUnitTestClass(psiJavaFile);
+      PsiClass underTestClass = testClass == null ? null : GenerationContext.findUnderTestClass(testClass);
+      if (underTestClass == null) {
+        // Creating the class under test, or pairing the test through @InjectMocks, makes the action available
+        return CachedValueProvider.Result.create(false, dependencies);
+      }
+
+      boolean hasMissingCode = GenerationMetrics.getInstance().computeWithoutRecording(
+              () -> MissingCodeCheck.hasMissingCode(testClass, underTestClass));
+      return CachedValueProvider.Result.create(hasMissingCode, dependencies);
+    });
+  }
 }
@@ -0,0 +1,61 @@
+package com.pelletier197.plugin.action;
+
+import com.intellij.notification.NotificationGroupManager;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.pelletier197.plugin.bulk.BulkGenerationResult;
+import com.pelletier197.plugin.bulk.TestFileCreator;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+import static com.pelletier197.plugin.action.GenMockitoBulkAction.NOTIFICATION_GROUP_ID;
+
+/**
+ * Creates the test files, already filled with the Mockito code, of all the production classes without tests found in
+ * the files, directories or modules selected in the project view.
+ */
+public class GenMockitoCreateTestsAction extends AnAction {
+
+  @Override
+  public @NotNull ActionUpdateThread getActionUpdateThread() {
+    return ActionUpdateThread.BGT;
+  }
+
+  @Override
+  public void update(@NotNull AnActionEvent e) {
+    VirtualFile[] selection = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+    e.getPresentation().setEnabledAndVisible(e.getProject() != null && selection != null && selection.length > 0);
+  }
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent e) {
+    Project project = e.getProject();
+    VirtualFile[] selection = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+    if (project == null || selection == null) {
+      return;
+    }
+
+    new Task.Backgroundable(project, "Creating Mockito JUnit 5 tests", true) {
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        indicator.setText("Collecting classes without tests");
+        List<String> untestedClasses = DumbService.getInstance(project).runReadActionInSmartMode(() -> TestFileCreator.collectUntestedClasses(project, selection));
+        BulkGenerationResult result = new TestFileCreator(project).create(untestedClasses, indicator);
+
+        NotificationGroupManager.getInstance()
+                .getNotificationGroup(NOTIFICATION_GROUP_ID)
+                .createNotification(result.getSummary(), NotificationType.INFORMATION)
+                .notify(project);
+      }
+    }.queue();
+  }
+}
@@ -0,0 +1,40 @@
+package com.pelletier197.plugin.action;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.ToggleAction;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.pelletier197.plugin.settings.MockitoGenSettings;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Restricts the generated mocks of the current project to the dependencies Mockito injects into the class under test.
+ */
+public class GenMockitoInjectedMocksOnlyAction extends ToggleAction implements DumbAware {
+
+  @Override
+  public @NotNull ActionUpdateThread getActionUpdateThread() {
+    return ActionUpdateThread.BGT;
+  }
+
+  @Override
+  public void update(@NotNull AnActionEvent e) {
+    super.update(e);
+    e.getPresentation().setEnabledAndVisible(e.getProject() != null);
+  }
+
+  @Override
+  public boolean isSelected(@NotNull AnActionEvent e) {
+    Project project = e.getProject();
+    return project != null && MockitoGenSettings.getInstance(project).isInjectedMocksOnly();
+  }
+
+  @Override
+  public void setSelected(@NotNull AnActionEvent e, boolean state) {
+    Project project = e.getProject();
+    if (project != null) {
+      MockitoGenSettings.getInstance(project).setInjectedMocksOnly(state);
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package com.pelletier197.plugin.action;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.ToggleAction;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.pelletier197.plugin.livesync.LiveSyncService;
+import com.pelletier197.plugin.settings.MockitoGenSettings;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Enables or disables the live sync of the generated test classes for the current project.
+ */
+public class GenMockitoLiveSyncAction extends ToggleAction implements DumbAware {
+
+  @Override
+  public @NotNull ActionUpdateThread getActionUpdateThread() {
+    return ActionUpdateThread.BGT;
+  }
+
+  @Override
+  public void update(@NotNull AnActionEvent e) {
+    super.update(e);
+    e.getPresentation().setEnabledAndVisible(e.getProject() != null);
+  }
+
+  @Override
+  public boolean isSelected(@NotNull AnActionEvent e) {
+    Project project = e.getProject();
+    return project != null && MockitoGenSettings.getInstance(project).isLiveSync();
+  }
+
+  @Override
+  public void setSelected(@NotNull AnActionEvent e, boolean state) {
+    Project project = e.getProject();
+    if (project == null) {
+      return;
+    }
+
+    MockitoGenSettings.getInstance(project).setLiveSync(state);
+    LiveSyncService liveSyncService = project.getServiceIfCreated(LiveSyncService.class);
+    if (!state && liveSyncService != null) {
+      liveSyncService.cancelPendingSyncs();
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package com.pelletier197.plugin.action;
+
+import com.intellij.diff.DiffContentFactory;
+import com.intellij.diff.DiffManager;
+import com.intellij.diff.requests.SimpleDiffRequest;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.notification.NotificationGroupManager;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.pelletier197.plugin.codegen.GenerationPreview;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Shows the diff of a test file before and after the missing code is generated, without modifying it. The preview is
+ * computed in a non-blocking read action on a background thread, which is restarted if the files are modified in the
+ * meantime, so that the diff is shown once the user stops typing and always matches the current content of the file.
+ */
+public class GenMockitoPreviewAction extends AnAction {
+  private static final String DIFF_TITLE = "Mockito JUnit 5 Code Preview";
+
+  @Override
+  public @NotNull ActionUpdateThread getActionUpdateThread() {
+    return ActionUpdateThread.BGT;
+  }
+
+  @Override
+  public void update(@NotNull AnActionEvent e) {
+    PsiFile psiFile = e.getData(CommonDataKeys.PSI_FILE);
+    boolean isTestFile = psiFile instanceof PsiJavaFile && psiFile.getName().endsWith(GenMockitoCodeAction.TEST_JAVA_FILE_NAME_SUFFIX);
+    e.getPresentation().setVisible(isTestFile);
+    e.getPresentation().setEnabled(isTestFile
+            && !DumbService.isDumb(psiFile.getProject())
+            && GenMockitoCodeAction.hasMissingCode((PsiJavaFile) psiFile));
+  }
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent e) {
+    Project project = e.getProject();
+    if (project == null || !(e.getData(CommonDataKeys.PSI_FILE) instanceof PsiJavaFile psiJavaFile)) {
+      return;
+    }
+
+    ReadAction.nonBlocking(() -> GenerationPreview.compute(psiJavaFile))
+            .inSmartMode(project)
+            .withDocumentsCommitted(project)
+            .expireWhen(() -> project.isDisposed() || !psiJavaFile.isValid())
+            .coalesceBy(this, psiJavaFile)
+            .finishOnUiThread(ModalityState.defaultModalityState(), preview -> show(project, preview))
+            .submit(AppExecutorUtil.getAppExecutorService());
+  }
+
+  private static void show(Project project, GenerationPreview preview) {
+    if (preview.isEmpty()) {
+      NotificationGroupManager.getInstance()
+              .getNotificationGroup(GenMockitoBulkAction.NOTIFICATION_GROUP_ID)
+              .createNotification("No Mockito JUnit 5 code is missing from " + preview.getFileName(), NotificationType.INFORMATION)
+              .notify(project);
+      return;
+    }
+
+    DiffContentFactory contentFactory = DiffContentFactory.getInstance();
+    SimpleDiffRequest request = new SimpleDiffRequest(DIFF_TITLE + ": " + preview.getFileName(),
+            contentFactory.create(project, preview.getTextBefore(), JavaFileType.INSTANCE),
+            contentFactory.create(project, preview.getTextAfter(), JavaFileType.INSTANCE),
+            "Current", "After generation");
+    DiffManager.getInstance().showDiff(project, request);
+  }
+}
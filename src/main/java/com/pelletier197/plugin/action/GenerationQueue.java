@@ -0,0 +1,136 @@
+package com.pelletier197.plugin.action;
+
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.pelletier197.plugin.codegen.utils.MockitoPluginUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.TestOnly;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Holds the generations requested while the project is indexing, and runs them once indexing completes. A background
+ * task shows the pending generations in the status bar, and cancelling it drops them. Requesting a generation for a
+ * file that is already queued replaces the previous request. The task stops listening to the dumb mode as soon as
+ * it is cancelled.
+ * <p>
+ * Must be used from the EDT.
+ */
+@Service(Service.Level.PROJECT)
+public final class GenerationQueue {
+  private final Project project;
+  private final Map<VirtualFile, Consumer<PsiJavaFile>> queuedGenerations = new LinkedHashMap<>();
+  private WaitForSmartModeTask waitingTask;
+
+  public GenerationQueue(Project project) {
+    this.project = project;
+  }
+
+  public static GenerationQueue getInstance(Project project) {
+    return project.getService(GenerationQueue.class);
+  }
+
+  public void enqueue(PsiJavaFile psiJavaFile, Consumer<PsiJavaFile> generation) {
+    VirtualFile file = psiJavaFile.getVirtualFile();
+    if (file == null) {
+      return;
+    }
+
+    queuedGenerations.put(file, generation);
+    if (waitingTask == null) {
+      waitingTask = new WaitForSmartModeTask();
+      waitingTask.queue();
+    }
+  }
+
+  /**
+   * Drops the queued generations, and cancels the task waiting for indexing to complete.
+   */
+  public void cancel() {
+    queuedGenerations.clear();
+    if (waitingTask != null) {
+      waitingTask.cancel();
+      waitingTask = null;
+    }
+  }
+
+  @TestOnly
+  boolean isWaiting() {
+    return waitingTask != null;
+  }
+
+  private void runQueuedGenerations() {
+    List<Map.Entry<VirtualFile, Consumer<PsiJavaFile>>> generations = new ArrayList<>(queuedGenerations.entrySet());
+    queuedGenerations.clear();
+
+    PsiManager psiManager = PsiManager.getInstance(project);
+    for (Map.Entry<VirtualFile, Consumer<PsiJavaFile>> generation : generations) {
+      if (generation.getKey().isValid() && psiManager.findFile(generation.getKey()) instanceof PsiJavaFile psiJavaFile) {
+        generation.getValue().accept(psiJavaFile);
+      }
+    }
+  }
+
+  /**
+   * Waits for indexing to complete. A task that is no longer the waiting task of the queue, because it was cancelled
+   * in between, leaves the queue untouched once it finishes.
+   */
+  private final class WaitForSmartModeTask extends Task.Backgroundable {
+    private volatile ProgressIndicator indicator;
+    private volatile boolean cancelled;
+
+    private WaitForSmartModeTask() {
+      super(project, "Generating Mockito JUnit 5 code", true);
+    }
+
+    @Override
+    public void run(@NotNull ProgressIndicator indicator) {
+      this.indicator = indicator;
+      if (cancelled) {
+        indicator.cancel();
+      }
+      indicator.setIndeterminate(true);
+      indicator.setText("Waiting for indexing to complete");
+      MockitoPluginUtils.awaitSmartMode(project);
+    }
+
+    private void cancel() {
+      cancelled = true;
+      ProgressIndicator currentIndicator = indicator;
+      if (currentIndicator != null) {
+        currentIndicator.cancel();
+      }
+    }
+
+    @Override
+    public void onSuccess() {
+      if (waitingTask == this) {
+        waitingTask = null;
+        runQueuedGenerations();
+      }
+    }
+
+    @Override
+    public void onCancel() {
+      if (waitingTask == this) {
+        waitingTask = null;
+        queuedGenerations.clear();
+      }
+    }
+
+    @Override
+    public void onThrowable(@NotNull Throwable error) {
+      super.onThrowable(error);
+      onCancel();
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.pelletier197.plugin.bulk;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk generation, with one entry per processed or created test file.
+ */
+public final class BulkGenerationResult {
+
+  public enum Status {
+    /**
+     * The test file did not exist, and was created with the generated code.
+     */
+    CREATED,
+    CHANGED,
+    UNCHANGED,
+    /**
+     * Code is missing from the test file. Only reported when checking the files without writing them.
+     */
+    MISSING,
+    FAILED
+  }
+
+  public static final class FileResult {
+    private final String path;
+    private final Status status;
+    private final long analysisNanos;
+    private final long writeNanos;
+    private final String error;
+
+    public FileResult(String path, Status status, long analysisNanos, long writeNanos, String error) {
+      this.path = path;
+      this.status = status;
+      this.analysisNanos = analysisNanos;
+      this.writeNanos = writeNanos;
+      this.error = error;
+    }
+
+    public String getPath() {
+      return path;
+    }
+
+    public Status getStatus() {
+      return status;
+    }
+
+    public long getAnalysisNanos() {
+      return analysisNanos;
+    }
+
+    public long getWriteNanos() {
+      return writeNanos;
+    }
+
+    public String getError() {
+      return error;
+    }
+  }
+
+  private final List<FileResult> files;
+  private final boolean cancelled;
+
+  public BulkGenerationResult(List<FileResult> files, boolean cancelled) {
+    this.files = List.copyOf(files);
+    this.cancelled = cancelled;
+  }
+
+  public List<FileResult> getFiles() {
+    return files;
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  public long count(Status status) {
+    return files.stream().filter(file -> file.getStatus() == status).count();
+  }
+
+  public String getSummary() {
+    return String.format("%s%d test files changed, %d already up to date, %d missing code, %d failed%s",
+            count(Status.CREATED) > 0 ? count(Status.CREATED) + " test files created, " : "",
+            count(Status.CHANGED),
+            count(Status.UNCHANGED),
+            count(Status.MISSING),
+            count(Status.FAILED),
+            cancelled ? " (cancelled)" : "");
+  }
+}
@@ -0,0 +1,279 @@
+package com.pelletier197.plugin.bulk;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.IndexNotReadyException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileVisitor;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.pelletier197.plugin.action.GenMockitoActionHandler;
+import com.pelletier197.plugin.action.GenMockitoCodeAction;
+import com.pelletier197.plugin.bulk.BulkGenerationResult.FileResult;
+import com.pelletier197.plugin.bulk.BulkGenerationResult.Status;
+import com.pelletier197.plugin.codegen.GeneratedCodeFormatter;
+import com.pelletier197.plugin.codegen.GenerationPlanApplier;
+import com.pelletier197.plugin.codegen.GenerationPlanner;
+import com.pelletier197.plugin.codegen.analysis.AnalysisCache;
+import com.pelletier197.plugin.codegen.plan.GenerationPlan;
+import com.pelletier197.plugin.codegen.utils.MockitoPluginUtils;
+import com.pelletier197.plugin.index.TestedClassIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Generates the Mockito code of many test files at once. The test files are analysed concurrently, each in its own
+ * non-blocking read action, and the resulting plans are then written in bounded batches, one write command per batch.
+ * Analyses and batches interrupted by indexing are retried once it completes, so that no file is partially generated.
+ * The plans made stale by a change of their test file, of the Java structure of the project or of the settings since
+ * they were computed are computed again before being written. The changes made by the generation itself, while it
+ * writes the previous test files, are not considered.
+ * The analyses of the classes under test are persisted by the {@link AnalysisCache}, so that the classes unchanged
+ * since a previous run are not analysed again.
+ */
+public class BulkGenerator {
+  public static final int WRITE_BATCH_SIZE = 50;
+
+  private final Project project;
+  private final GenerationPlanner planner = new GenerationPlanner().withAnalysisCache(AnalysisCache.getInstance());
+  // Changes of the Java structure made by the writes of the current generation, which the analyses all precede
+  private long ownJavaStructureChanges;
+
+  public BulkGenerator(Project project) {
+    this.project = project;
+  }
+
+  /**
+   * Collects the test files found under the given files or directories, along with the test files of the production
+   * classes found there. Must be called from a read action in smart mode.
+   */
+  public static List<VirtualFile> collectTestFiles(Project project, VirtualFile[] roots) {
+    ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+    PsiManager psiManager = PsiManager.getInstance(project);
+    Set<VirtualFile> testFiles = new LinkedHashSet<>();
+
+    for (VirtualFile root : roots) {
+      VfsUtilCore.visitChildrenRecursively(root, new VirtualFileVisitor<Void>() {
+        @Override
+        public boolean visitFile(VirtualFile file) {
+          if (!fileIndex.isInContent(file)) {
+            return false;
+          }
+          if (file.isDirectory()) {
+            return true;
+          }
+
+          if (file.getName().endsWith(GenMockitoCodeAction.TEST_JAVA_FILE_NAME_SUFFIX)) {
+            testFiles.add(file);
+          } else if (fileIndex.isInSourceContent(file) && !fileIndex.isInTestSourceContent(file)
+                  && psiManager.findFile(file) instanceof PsiJavaFile underTestFile) {
+            for (PsiClass underTestClass : underTestFile.getClasses()) {
+              if (underTestClass.getQualifiedName() != null) {
+                testFiles.addAll(TestedClassIndex.findTestFiles(project, underTestClass.getQualifiedName()));
+              }
+            }
+          }
+          return true;
+        }
+      });
+    }
+    return new ArrayList<>(testFiles);
+  }
+
+  public BulkGenerationResult generate(List<VirtualFile> files, ProgressIndicator indicator) {
+    FileAnalysis[] analyses = new FileAnalysis[files.size()];
+    FileResult[] results = new FileResult[files.size()];
+
+    try {
+      analyse(files, analyses, indicator);
+      write(analyses, results, indicator);
+      return new BulkGenerationResult(Arrays.asList(results), false);
+    } catch (ProcessCanceledException e) {
+      return cancelled(results);
+    }
+  }
+
+  /**
+   * Analyses the files without writing them, reporting the files that are missing generated code.
+   */
+  public BulkGenerationResult check(List<VirtualFile> files, ProgressIndicator indicator) {
+    FileAnalysis[] analyses = new FileAnalysis[files.size()];
+    FileResult[] results = new FileResult[files.size()];
+
+    try {
+      analyse(files, analyses, indicator);
+      for (int i = 0; i < analyses.length; i++) {
+        FileAnalysis analysis = analyses[i];
+        if (analysis.error != null) {
+          results[i] = analysis.toResult(Status.FAILED, 0, analysis.error);
+        } else if (analysis.plan == null || analysis.plan.isEmpty()) {
+          results[i] = analysis.toResult(Status.UNCHANGED, 0, null);
+        } else {
+          results[i] = analysis.toResult(Status.MISSING, 0, null);
+        }
+      }
+      return new BulkGenerationResult(Arrays.asList(results), false);
+    } catch (ProcessCanceledException e) {
+      return cancelled(results);
+    }
+  }
+
+  private BulkGenerationResult cancelled(FileResult[] results) {
+    List<FileResult> completed = Arrays.stream(results).filter(result -> result != null).toList();
+    return new BulkGenerationResult(completed, true);
+  }
+
+  private void analyse(List<VirtualFile> files, FileAnalysis[] analyses, ProgressIndicator indicator) {
+    indicator.setIndeterminate(false);
+    indicator.setText("Analysing test files");
+    AtomicInteger analysed = new AtomicInteger();
+
+    List<Integer> indexes = IntStream.range(0, files.size()).boxed().toList();
+    JobLauncher.getInstance().invokeConcurrentlyUnderProgress(indexes, indicator, index -> {
+      analyses[index] = analyse(files.get(index));
+      indicator.setFraction(0.5 * analysed.incrementAndGet() / files.size());
+      return true;
+    });
+  }
+
+  private FileAnalysis analyse(VirtualFile file) {
+    long start = System.nanoTime();
+    while (true) {
+      try {
+        return ReadAction.nonBlocking(() -> {
+          PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+          if (!(psiFile instanceof PsiJavaFile psiJavaFile)) {
+            return new FileAnalysis(file, null, System.nanoTime() - start, null);
+          }
+          return new FileAnalysis(file, planner.plan(psiJavaFile), System.nanoTime() - start, null);
+        }).executeSynchronously();
+      } catch (IndexNotReadyException e) {
+        // Indexing started during the analysis, which is retried once it completes
+        MockitoPluginUtils.awaitSmartMode(project);
+      } catch (ProcessCanceledException e) {
+        throw e;
+      } catch (RuntimeException e) {
+        return new FileAnalysis(file, null, System.nanoTime() - start, e.getMessage());
+      }
+    }
+  }
+
+  private void write(FileAnalysis[] analyses, FileResult[] results, ProgressIndicator indicator) {
+    indicator.setText("Writing generated code");
+    List<Integer> pending = new ArrayList<>();
+    ownJavaStructureChanges = 0;
+
+    for (int i = 0; i < analyses.length; i++) {
+      FileAnalysis analysis = analyses[i];
+      if (analysis.error != null) {
+        results[i] = analysis.toResult(Status.FAILED, 0, analysis.error);
+      } else if (analysis.plan == null || analysis.plan.isEmpty()) {
+        results[i] = analysis.toResult(Status.UNCHANGED, 0, null);
+      } else {
+        pending.add(i);
+      }
+    }
+
+    for (int batchStart = 0; batchStart < pending.size(); batchStart += WRITE_BATCH_SIZE) {
+      indicator.checkCanceled();
+      List<Integer> batch = pending.subList(batchStart, Math.min(batchStart + WRITE_BATCH_SIZE, pending.size()));
+      indicator.setText2(String.format("%d / %d", batchStart + batch.size(), pending.size()));
+
+      while (!writeBatch(batch, analyses, results)) {
+        MockitoPluginUtils.awaitSmartMode(project);
+        indicator.checkCanceled();
+      }
+
+      indicator.setFraction(0.5 + 0.5 * (batchStart + batch.size()) / pending.size());
+    }
+  }
+
+  /**
+   * Writes a batch of plans in a single command, unless the project is indexing, since the imports could then not be
+   * resolved.
+   *
+   * @return false if the batch was not written because the project is indexing.
+   */
+  private boolean writeBatch(List<Integer> batch, FileAnalysis[] analyses, FileResult[] results) {
+    boolean[] written = new boolean[1];
+    ApplicationManager.getApplication().invokeAndWait(() -> {
+      if (DumbService.isDumb(project)) {
+        return;
+      }
+      WriteCommandAction.writeCommandAction(project)
+              .withName(GenMockitoActionHandler.COMMAND_NAME)
+              .run(() -> batch.forEach(index -> results[index] = write(analyses[index])));
+      written[0] = true;
+    }, ModalityState.defaultModalityState());
+    return written[0];
+  }
+
+  private FileResult write(FileAnalysis analysis) {
+    long start = System.nanoTime();
+    try {
+      PsiFile psiFile = PsiManager.getInstance(project).findFile(analysis.file);
+      if (!(psiFile instanceof PsiJavaFile psiJavaFile)) {
+        return analysis.toResult(Status.FAILED, System.nanoTime() - start, "File is no longer a Java file");
+      }
+
+      GenerationPlan plan = analysis.plan;
+      if (!GenerationPlanner.isUpToDate(psiJavaFile, plan, ownJavaStructureChanges)) {
+        // The sources of the plan changed since it was analysed, the plan is recomputed under the write lock
+        plan = planner.plan(psiJavaFile);
+      }
+      if (plan.isEmpty()) {
+        return analysis.toResult(Status.UNCHANGED, System.nanoTime() - start, null);
+      }
+
+      long javaStructureCount = GenerationPlanner.getJavaStructureCount(project);
+      try {
+        List<PsiElement> generatedElements = new GenerationPlanApplier(JavaPsiFacade.getInstance(project)).apply(psiJavaFile, plan);
+        new GeneratedCodeFormatter(project).format(psiJavaFile, generatedElements);
+      } finally {
+        ownJavaStructureChanges += GenerationPlanner.getJavaStructureCount(project) - javaStructureCount;
+      }
+      return analysis.toResult(Status.CHANGED, System.nanoTime() - start, null);
+    } catch (ProcessCanceledException e) {
+      throw e;
+    } catch (RuntimeException e) {
+      return analysis.toResult(Status.FAILED, System.nanoTime() - start, e.getMessage());
+    }
+  }
+
+  private static final class FileAnalysis {
+    private final VirtualFile file;
+    private final GenerationPlan plan;
+    private final long analysisNanos;
+    private final String error;
+
+    private FileAnalysis(VirtualFile file, GenerationPlan plan, long analysisNanos, String error) {
+      this.file = file;
+      this.plan = plan;
+      this.analysisNanos = analysisNanos;
+      this.error = error;
+    }
+
+    private FileResult toResult(Status status, long writeNanos, String error) {
+      return new FileResult(file.getPath(), status, analysisNanos, writeNanos, error);
+    }
+  }
+}
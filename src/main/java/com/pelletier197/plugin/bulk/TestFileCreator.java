@@ -0,0 +1,307 @@
+package com.pelletier197.plugin.bulk;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.IndexNotReadyException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ContentEntry;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.SourceFolder;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileVisitor;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.pelletier197.plugin.bulk.BulkGenerationResult.FileResult;
+import com.pelletier197.plugin.bulk.BulkGenerationResult.Status;
+import com.pelletier197.plugin.codegen.GeneratedCodeFormatter;
+import com.pelletier197.plugin.codegen.GenerationContext;
+import com.pelletier197.plugin.codegen.GenerationPlanApplier;
+import com.pelletier197.plugin.codegen.GenerationPlanner;
+import com.pelletier197.plugin.codegen.analysis.AnalysisCache;
+import com.pelletier197.plugin.codegen.plan.GenerationPlan;
+import com.pelletier197.plugin.codegen.utils.MockitoPluginUtils;
+import com.pelletier197.plugin.index.TestedClassIndex;
+import org.jetbrains.jps.model.java.JavaSourceRootProperties;
+import org.jetbrains.jps.model.java.JavaSourceRootType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Creates the test files of the production classes that have none, already filled with the generated code.
+ * <p>
+ * The content of every new test file is built concurrently in the background, by applying the generation plan to a
+ * non-physical file. All the files are then written in a single write command, so that creating the tests of a whole
+ * module only costs one round-trip to the EDT.
+ */
+public class TestFileCreator {
+  public static final String COMMAND_NAME = "Create Mockito JUnit 5 Tests";
+
+  private final Project project;
+  private final GenerationPlanner planner = new GenerationPlanner().withAnalysisCache(AnalysisCache.getInstance());
+
+  public TestFileCreator(Project project) {
+    this.project = project;
+  }
+
+  /**
+   * Collects the qualified names of the production classes found under the given files or directories that are not
+   * tested yet. Interfaces, enums, records, annotations and abstract classes are ignored, since <code>@InjectMocks</code>
+   * can not instantiate them. Must be called from a read action in smart mode.
+   */
+  public static List<String> collectUntestedClasses(Project project, VirtualFile[] roots) {
+    ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+    PsiManager psiManager = PsiManager.getInstance(project);
+    Set<String> untestedClasses = new LinkedHashSet<>();
+
+    for (VirtualFile root : roots) {
+      VfsUtilCore.visitChildrenRecursively(root, new VirtualFileVisitor<Void>() {
+        @Override
+        public boolean visitFile(VirtualFile file) {
+          if (!fileIndex.isInSourceContent(file) || fileIndex.isInTestSourceContent(file)) {
+            return file.isDirectory() && fileIndex.isInContent(file);
+          }
+
+          if (!file.isDirectory() && psiManager.findFile(file) instanceof PsiJavaFile javaFile) {
+            for (PsiClass psiClass : javaFile.getClasses()) {
+              String qualifiedName = psiClass.getQualifiedName();
+              if (qualifiedName != null && isTestable(psiClass) && !TestedClassIndex.isTested(project, qualifiedName)) {
+                untestedClasses.add(qualifiedName);
+              }
+            }
+          }
+          return true;
+        }
+      });
+    }
+    return new ArrayList<>(untestedClasses);
+  }
+
+  public BulkGenerationResult create(List<String> underTestQualifiedNames, ProgressIndicator indicator) {
+    NewTestFile[] newFiles = new NewTestFile[underTestQualifiedNames.size()];
+    List<FileResult> results = new ArrayList<>();
+
+    try {
+      build(underTestQualifiedNames, newFiles, indicator);
+      indicator.checkCanceled();
+      indicator.setText("Writing test files");
+      write(newFiles, results);
+      return new BulkGenerationResult(results, false);
+    } catch (ProcessCanceledException e) {
+      return new BulkGenerationResult(results, true);
+    }
+  }
+
+  private void build(List<String> underTestQualifiedNames, NewTestFile[] newFiles, ProgressIndicator indicator) {
+    indicator.setIndeterminate(false);
+    indicator.setText("Generating test files");
+    AtomicInteger built = new AtomicInteger();
+
+    JobLauncher.getInstance().invokeConcurrentlyUnderProgress(IntStream.range(0, newFiles.length).boxed().toList(), indicator, index -> {
+      newFiles[index] = build(underTestQualifiedNames.get(index));
+      indicator.setFraction((double) built.incrementAndGet() / newFiles.length);
+      return true;
+    });
+  }
+
+  private NewTestFile build(String underTestQualifiedName) {
+    long start = System.nanoTime();
+    while (true) {
+      try {
+        return ReadAction.nonBlocking(() -> buildInReadAction(underTestQualifiedName, start)).executeSynchronously();
+      } catch (IndexNotReadyException e) {
+        // Indexing started while the file was built, which is retried once it completes
+        MockitoPluginUtils.awaitSmartMode(project);
+      } catch (ProcessCanceledException e) {
+        throw e;
+      } catch (RuntimeException e) {
+        return NewTestFile.failed(underTestQualifiedName, System.nanoTime() - start, e.getMessage());
+      }
+    }
+  }
+
+  private NewTestFile buildInReadAction(String underTestQualifiedName, long start) {
+    PsiClass underTestClass = JavaPsiFacade.getInstance(project).findClass(underTestQualifiedName, GlobalSearchScope.projectScope(project));
+    if (underTestClass == null || underTestClass.getContainingFile().getVirtualFile() == null) {
+      return NewTestFile.failed(underTestQualifiedName, System.nanoTime() - start, "Class no longer exists");
+    }
+
+    TestRoot testRoot = findTestRoot(underTestClass.getContainingFile().getVirtualFile());
+    if (testRoot == null) {
+      return NewTestFile.failed(underTestQualifiedName, System.nanoTime() - start, "No test source root found");
+    }
+
+    String packageName = StringUtil.getPackageName(underTestQualifiedName);
+    String className = underTestClass.getName() + GenerationContext.TEST_CLASS_NAME_SUFFIXES.get(0);
+    String fileName = className + JavaFileType.DOT_DEFAULT_EXTENSION;
+    String text = (packageName.isEmpty() ? "" : "package " + packageName + ";\n\n") + "class " + className + " {\n}\n";
+
+    PsiJavaFile testFile = (PsiJavaFile) PsiFileFactory.getInstance(project).createFileFromText(fileName, JavaFileType.INSTANCE, text);
+    GenerationPlan plan = planner.plan(testFile);
+    List<PsiElement> generatedElements = new GenerationPlanApplier(JavaPsiFacade.getInstance(project)).apply(testFile, plan);
+    new GeneratedCodeFormatter(project).formatCopy(testFile, generatedElements);
+
+    return new NewTestFile(underTestQualifiedName, testRoot.getDirectoryPath(packageName), fileName, testFile.getText(),
+            System.nanoTime() - start, null);
+  }
+
+  /**
+   * @return the test source root of the module of a production file, or else of a module depending on it, such as
+   * the test module of a Gradle source set. Roots of generated sources are ignored.
+   */
+  private TestRoot findTestRoot(VirtualFile productionFile) {
+    Module module = ProjectFileIndex.getInstance(project).getModuleForFile(productionFile);
+    if (module == null) {
+      return null;
+    }
+
+    List<Module> candidates = new ArrayList<>();
+    candidates.add(module);
+    candidates.addAll(ModuleManager.getInstance(project).getModuleDependentModules(module));
+
+    for (Module candidate : candidates) {
+      for (ContentEntry contentEntry : ModuleRootManager.getInstance(candidate).getContentEntries()) {
+        for (SourceFolder sourceFolder : contentEntry.getSourceFolders(JavaSourceRootType.TEST_SOURCE)) {
+          JavaSourceRootProperties properties = sourceFolder.getJpsElement().getProperties(JavaSourceRootType.TEST_SOURCE);
+          VirtualFile root = sourceFolder.getFile();
+          if (root != null && (properties == null || !properties.isForGeneratedSources())) {
+            return new TestRoot(root, sourceFolder.getPackagePrefix());
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Writes all the new test files in a single write command. The files that were created in the meantime, for instance
+   * by another generation, are left untouched.
+   */
+  private void write(NewTestFile[] newFiles, List<FileResult> results) {
+    ApplicationManager.getApplication().invokeAndWait(() -> WriteCommandAction.writeCommandAction(project)
+            .withName(COMMAND_NAME)
+            .run(() -> {
+              for (NewTestFile newFile : newFiles) {
+                results.add(write(newFile));
+              }
+            }), ModalityState.defaultModalityState());
+  }
+
+  private FileResult write(NewTestFile newFile) {
+    if (newFile.error != null) {
+      return newFile.toResult(newFile.underTestQualifiedName, Status.FAILED, 0);
+    }
+
+    long start = System.nanoTime();
+    String path = newFile.directory.getPath() + "/" + newFile.fileName;
+    try {
+      VirtualFile directory = newFile.directory.findOrCreate();
+      if (directory.findChild(newFile.fileName) != null) {
+        return newFile.toResult(path, Status.UNCHANGED, System.nanoTime() - start);
+      }
+
+      VirtualFile file = directory.createChildData(this, newFile.fileName);
+      VfsUtil.saveText(file, newFile.text);
+      return newFile.toResult(file.getPath(), Status.CREATED, System.nanoTime() - start);
+    } catch (IOException e) {
+      return new FileResult(path, Status.FAILED, newFile.buildNanos, System.nanoTime() - start, e.getMessage());
+    }
+  }
+
+  private static boolean isTestable(PsiClass psiClass) {
+    return !psiClass.isInterface()
+            && !psiClass.isEnum()
+            && !psiClass.isRecord()
+            && !psiClass.isAnnotationType()
+            && !psiClass.hasModifierProperty(PsiModifier.ABSTRACT)
+            && GenerationContext.getUnderTestQualifiedName(psiClass.getQualifiedName()) == null;
+  }
+
+  private static final class TestRoot {
+    private final VirtualFile root;
+    private final String packagePrefix;
+
+    private TestRoot(VirtualFile root, String packagePrefix) {
+      this.root = root;
+      this.packagePrefix = packagePrefix;
+    }
+
+    private TestDirectory getDirectoryPath(String packageName) {
+      String relativePackage = packageName;
+      if (!packagePrefix.isEmpty() && (packageName.equals(packagePrefix) || packageName.startsWith(packagePrefix + "."))) {
+        relativePackage = StringUtil.trimStart(packageName.substring(packagePrefix.length()), ".");
+      }
+      return new TestDirectory(root, relativePackage.replace('.', '/'));
+    }
+  }
+
+  private static final class TestDirectory {
+    private final VirtualFile root;
+    private final String relativePath;
+
+    private TestDirectory(VirtualFile root, String relativePath) {
+      this.root = root;
+      this.relativePath = relativePath;
+    }
+
+    /**
+     * @return the path of the directory, which is the root itself for the classes of the default package.
+     */
+    private String getPath() {
+      return relativePath.isEmpty() ? root.getPath() : root.getPath() + "/" + relativePath;
+    }
+
+    private VirtualFile findOrCreate() throws IOException {
+      return relativePath.isEmpty() ? root : VfsUtil.createDirectoryIfMissing(root, relativePath);
+    }
+  }
+
+  private static final class NewTestFile {
+    private final String underTestQualifiedName;
+    private final TestDirectory directory;
+    private final String fileName;
+    private final String text;
+    private final long buildNanos;
+    private final String error;
+
+    private NewTestFile(String underTestQualifiedName, TestDirectory directory, String fileName, String text, long buildNanos, String error) {
+      this.underTestQualifiedName = underTestQualifiedName;
+      this.directory = directory;
+      this.fileName = fileName;
+      this.text = text;
+      this.buildNanos = buildNanos;
+      this.error = error;
+    }
+
+    private static NewTestFile failed(String underTestQualifiedName, long buildNanos, String error) {
+      return new NewTestFile(underTestQualifiedName, null, null, null, buildNanos, error);
+    }
+
+    private FileResult toResult(String path, Status status, long writeNanos) {
+      return new FileResult(path, status, buildNanos, writeNanos, error);
+    }
+  }
+}
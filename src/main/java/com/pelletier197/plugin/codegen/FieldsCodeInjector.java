@@ -1,23 +1,19 @@
 package com.pelletier197.plugin.codegen;
 
-import com.intellij.navigation.NavigationItem;
 import com.intellij.openapi.project.Project;
-import com.intellij.psi.*;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiType;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.pelletier197.plugin.codegen.utils.CommonCodeInjector;
-import com.pelletier197.plugin.codegen.utils.MockitoPluginUtils;
-
-import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Inserts code with declaration of fields that can be auto-generated in a Mockito test:
  * - mocked fields
  * - subject of the test
  * <p>
- * Mocked fields are inserted for each non-static object defined in the tested class. So far the fields
- * declared in parent of the tested class are ignored. Example of the code generated for an object of type ClassName:
+ * Mocked fields are inserted for each non-static object defined in the tested class, including the fields inherited
+ * from its parents, as read by the analysis of the tested class. Example of the code generated for an object of type
+ * ClassName:
  * <code>
  *
  * @Mock private ClassName className;
@@ -32,64 +28,45 @@ import java.util.stream.Stream;
  */
 public class FieldsCodeInjector implements CodeInjector {
 
-  public static final String TEST_CLASS_NAME_SUFFIX = "Test";
   public static final String INJECT_MOCKS_CLASS_NAME = "InjectMocks";
   public static final String INJECT_MOCKS_ANNOTATION_QUALIFIED_NAME = "org.mockito.InjectMocks";
 
   public static final String UNDER_TEST_FIELD_NAME = "underTest";
 
-
-  private final PsiJavaFile psiJavaFile;
-  private final Project project;
-  private final JavaPsiFacade javaPsiFacade;
-  private final ImportOrganizer importOrganizer;
+  private final GenerationContext context;
   private final CommonCodeInjector commonCodeInjector;
 
-  public FieldsCodeInjector(PsiJavaFile psiJavaFile, ImportOrganizer importOrganizer, CommonCodeInjector commonCodeInjector) {
-    this.psiJavaFile = psiJavaFile;
-    this.project = psiJavaFile.getProject();
+  public FieldsCodeInjector(GenerationContext context, CommonCodeInjector commonCodeInjector) {
+    this.context = context;
     this.commonCodeInjector = commonCodeInjector;
-    this.javaPsiFacade = JavaPsiFacade.getInstance(project);
-    this.importOrganizer = importOrganizer;
   }
 
   @Override
   public void inject() {
-    PsiClass psiClass = MockitoPluginUtils.getUnitTestClass(psiJavaFile);
-
-    String underTestQualifiedClassName = getUnderTestQualifiedClassName(psiClass);
+    String underTestQualifiedClassName = context.getUnderTestQualifiedName();
     if (underTestQualifiedClassName == null) {
       return;
     }
 
-    insertMockedFields(psiClass,underTestQualifiedClassName);
-    insertUnderTestField(psiClass, underTestQualifiedClassName);
+    insertMockedFields();
+    insertUnderTestField(underTestQualifiedClassName);
   }
 
-  private void insertUnderTestField(PsiClass testClass, String underTestQualifiedClassName) {
-    Set<String> existingFields = Stream.of(testClass.getFields()).map(NavigationItem::getName).collect(Collectors.toSet());
-    if (!existingFields.contains(UNDER_TEST_FIELD_NAME)) {
+  private void insertUnderTestField(String underTestQualifiedClassName) {
+    if (!context.testClassPlan().hasField(UNDER_TEST_FIELD_NAME)) {
+      Project project = context.getProject();
       PsiClassType subjectClassType = PsiType.getTypeByName(underTestQualifiedClassName, project, GlobalSearchScope.projectScope(project));
 
-      commonCodeInjector.insertNewField(testClass, subjectClassType, UNDER_TEST_FIELD_NAME, INJECT_MOCKS_CLASS_NAME);
-      importOrganizer.addClassImport(psiJavaFile, INJECT_MOCKS_ANNOTATION_QUALIFIED_NAME);
+      commonCodeInjector.insertNewField(context.testClassPlan(), subjectClassType.getCanonicalText(), UNDER_TEST_FIELD_NAME, INJECT_MOCKS_CLASS_NAME);
+      context.getPlan().addClassImport(INJECT_MOCKS_ANNOTATION_QUALIFIED_NAME);
     }
   }
 
-  private void insertMockedFields(PsiClass testClass, String underTestQualifiedClassName) {
-    PsiClass underTestPsiClass = javaPsiFacade.findClass(underTestQualifiedClassName, GlobalSearchScope.allScope(project));
-    if (underTestPsiClass == null) {
+  private void insertMockedFields() {
+    if (context.getUnderTestClass() == null) {
       return;
     }
 
-    commonCodeInjector.insertAllMissingMocksForFieldsOfClassIntoTestClass(testClass, underTestPsiClass);
-  }
-
-  private String getUnderTestQualifiedClassName(PsiClass testClass) {
-    String testClassName = testClass.getQualifiedName();
-    if (testClassName.endsWith(TEST_CLASS_NAME_SUFFIX)) {
-      return testClassName.substring(0, testClassName.length() - TEST_CLASS_NAME_SUFFIX.length());
-    }
-    return null;
+    commonCodeInjector.insertAllMissingMocksForFieldsOfClassUnderTestIntoTestClass(context.testClassPlan());
   }
 }
@@ -0,0 +1,137 @@
+package com.pelletier197.plugin.codegen;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Segment;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiFileRange;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.pelletier197.plugin.metrics.GenerationMetrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Post-processes the code generated in a test file in a single pass, once the whole plan is applied. The qualified
+ * class names of the generated code are shortened, which imports them, and the generated code is then reformatted.
+ * <p>
+ * Only the ranges of the generated elements are processed, so that the code written by the user is left untouched.
+ * Adjacent elements are merged into a single range, which is tracked by a smart pointer while the imports added by
+ * the shortening shift the text of the file.
+ * <p>
+ * The non-physical files, such as the copies of the preview and the files built by the creation of tests, are
+ * processed by {@link #formatCopy}, which only works on their PSI and can therefore run in a background read action.
+ */
+public class GeneratedCodeFormatter {
+  private static final String SHORTEN_PHASE = "GeneratedCodeFormatter.shortenClassReferences";
+  private static final String REFORMAT_PHASE = "GeneratedCodeFormatter.reformat";
+
+  private final JavaCodeStyleManager javaCodeStyleManager;
+  private final CodeStyleManager codeStyleManager;
+  private final SmartPointerManager smartPointerManager;
+  private final GenerationMetrics metrics = GenerationMetrics.getInstance();
+
+  public GeneratedCodeFormatter(Project project) {
+    this.javaCodeStyleManager = JavaCodeStyleManager.getInstance(project);
+    this.codeStyleManager = CodeStyleManager.getInstance(project);
+    this.smartPointerManager = SmartPointerManager.getInstance(project);
+  }
+
+  public void format(PsiJavaFile psiJavaFile, List<PsiElement> generatedElements) {
+    List<SmartPsiFileRange> ranges = new ArrayList<>();
+    for (TextRange range : mergeAdjacentRanges(psiJavaFile, generatedElements)) {
+      ranges.add(smartPointerManager.createSmartPsiFileRangePointer(psiJavaFile, range));
+    }
+    if (ranges.isEmpty()) {
+      return;
+    }
+
+    try (GenerationMetrics.Span ignored = metrics.startSpan(SHORTEN_PHASE)) {
+      for (SmartPsiFileRange range : ranges) {
+        Segment segment = range.getRange();
+        if (segment != null) {
+          javaCodeStyleManager.shortenClassReferences(psiJavaFile, segment.getStartOffset(), segment.getEndOffset());
+        }
+      }
+    }
+
+    List<TextRange> reformattedRanges = new ArrayList<>();
+    for (SmartPsiFileRange range : ranges) {
+      Segment segment = range.getRange();
+      if (segment != null) {
+        reformattedRanges.add(TextRange.create(segment));
+      }
+      smartPointerManager.removePointer(range);
+    }
+
+    try (GenerationMetrics.Span ignored = metrics.startSpan(REFORMAT_PHASE)) {
+      codeStyleManager.reformatText(psiJavaFile, reformattedRanges);
+    }
+  }
+
+  /**
+   * Same as {@link #format}, for a non-physical file. The references are shortened element by element, and the ranges
+   * are then reformatted from the last one, so that the ranges before it keep their offsets. Neither a write action
+   * nor a commit of the documents is needed.
+   */
+  public void formatCopy(PsiJavaFile copy, List<PsiElement> generatedElements) {
+    if (copy.isPhysical()) {
+      throw new IllegalArgumentException("Only non-physical files can be formatted outside of a write action: " + copy.getName());
+    }
+
+    List<PsiElement> shortenedElements = new ArrayList<>();
+    try (GenerationMetrics.Span ignored = metrics.startSpan(SHORTEN_PHASE)) {
+      for (PsiElement element : generatedElements) {
+        if (element.isValid()) {
+          shortenedElements.add(javaCodeStyleManager.shortenClassReferences(element));
+        }
+      }
+    }
+
+    List<TextRange> ranges = mergeAdjacentRanges(copy, shortenedElements);
+    try (GenerationMetrics.Span ignored = metrics.startSpan(REFORMAT_PHASE)) {
+      for (int i = ranges.size() - 1; i >= 0; i--) {
+        codeStyleManager.reformatRange(copy, ranges.get(i).getStartOffset(), ranges.get(i).getEndOffset());
+      }
+    }
+  }
+
+  /**
+   * @return the ranges of the generated elements, sorted by offset, where the elements only separated by white spaces
+   * are merged into a single range.
+   */
+  private static List<TextRange> mergeAdjacentRanges(PsiJavaFile psiJavaFile, List<PsiElement> generatedElements) {
+    List<TextRange> elementRanges = new ArrayList<>();
+    for (PsiElement element : generatedElements) {
+      if (element.isValid()) {
+        elementRanges.add(element.getTextRange());
+      }
+    }
+    elementRanges.sort(Comparator.comparingInt(TextRange::getStartOffset));
+
+    CharSequence text = psiJavaFile.getText();
+    List<TextRange> merged = new ArrayList<>();
+    for (TextRange range : elementRanges) {
+      TextRange last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+      if (last != null && (last.contains(range) || isBlank(text, last.getEndOffset(), range.getStartOffset()))) {
+        merged.set(merged.size() - 1, last.union(range));
+      } else {
+        merged.add(range);
+      }
+    }
+    return merged;
+  }
+
+  private static boolean isBlank(CharSequence text, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (!Character.isWhitespace(text.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
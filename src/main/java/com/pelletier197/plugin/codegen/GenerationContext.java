@@ -0,0 +1,217 @@
+package com.pelletier197.plugin.codegen;
+
+import com.intellij.navigation.NavigationItem;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiUtil;
+import com.pelletier197.plugin.codegen.analysis.AnalysisCache;
+import com.pelletier197.plugin.codegen.analysis.UnderTestAnalysis;
+import com.pelletier197.plugin.codegen.analysis.UnderTestAnalyzer;
+import com.pelletier197.plugin.codegen.plan.ClassPlan;
+import com.pelletier197.plugin.codegen.plan.GenerationPlan;
+import com.pelletier197.plugin.codegen.plan.ModificationStamp;
+import com.pelletier197.plugin.codegen.utils.MockitoPluginUtils;
+import com.pelletier197.plugin.metrics.GenerationMetrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * What the injectors need to know about a test file and its class under test, resolved once per generation and shared
+ * by all the injectors. The names of the existing members of the test class are indexed once, and the plan being
+ * built keeps track of the members added by each injector, so that the indexes stay up to date during the whole
+ * generation.
+ * <p>
+ * The context reads the PSI, and must be used from the read action it was created in.
+ */
+public final class GenerationContext {
+  public static final List<String> TEST_CLASS_NAME_SUFFIXES = List.of("Test", "IT", "Tests", "ITs", "E2E");
+
+  private static final String FIND_CLASS_UNDER_TEST_PHASE = "GenerationContext.findClassUnderTest";
+
+  private final Project project;
+  private final PsiJavaFile testFile;
+  private final PsiClass testClass;
+  private final String underTestQualifiedName;
+  private final PsiClass underTestClass;
+  private final Map<String, Set<String>> existingNestedClassFieldNames;
+  private final GenerationPlan.Builder plan;
+  private final AnalysisCache analysisCache;
+  private final ImportOrganizer importOrganizer;
+  private UnderTestAnalysis underTestAnalysis;
+
+  private GenerationContext(PsiJavaFile testFile,
+                            PsiClass testClass,
+                            String underTestQualifiedName,
+                            PsiClass underTestClass,
+                            Map<String, Set<String>> existingNestedClassFieldNames,
+                            GenerationPlan.Builder plan,
+                            AnalysisCache analysisCache) {
+    this.project = testFile.getProject();
+    this.testFile = testFile;
+    this.testClass = testClass;
+    this.underTestQualifiedName = underTestQualifiedName;
+    this.underTestClass = underTestClass;
+    this.existingNestedClassFieldNames = existingNestedClassFieldNames;
+    this.plan = plan;
+    this.analysisCache = analysisCache;
+    this.importOrganizer = new ImportOrganizer(JavaPsiFacade.getInstance(project));
+  }
+
+  /**
+   * @param analysisCache the persistent cache of the analyses of the classes under test, or null to always analyse the
+   *                      class under test.
+   */
+  public static GenerationContext create(PsiJavaFile testFile, ModificationStamp modificationStamp, AnalysisCache analysisCache) {
+    PsiClass testClass = MockitoPluginUtils.getUnitTestClass(testFile);
+
+    Map<String, Set<String>> existingNestedClassFieldNames = new HashMap<>();
+    for (PsiClass innerClass : testClass.getInnerClasses()) {
+      existingNestedClassFieldNames.put(innerClass.getName(), getFieldNames(innerClass));
+    }
+
+    PsiClass underTestClass = findUnderTestClass(testClass);
+    String underTestQualifiedName = getUnderTestQualifiedName(testClass.getQualifiedName());
+    if (underTestQualifiedName == null && underTestClass != null) {
+      underTestQualifiedName = underTestClass.getQualifiedName();
+    }
+
+    GenerationPlan.Builder plan = GenerationPlan.builder(modificationStamp, getFieldNames(testClass));
+    return new GenerationContext(testFile, testClass, underTestQualifiedName, underTestClass, existingNestedClassFieldNames, plan, analysisCache);
+  }
+
+  /**
+   * @return the qualified name of the class tested by a test class, by removing the test suffix of its name. Null if
+   * the name of the test class does not end with one of the {@link #TEST_CLASS_NAME_SUFFIXES}.
+   */
+  public static String getUnderTestQualifiedName(String testClassQualifiedName) {
+    if (testClassQualifiedName == null) {
+      return null;
+    }
+
+    for (String suffix : TEST_CLASS_NAME_SUFFIXES) {
+      if (testClassQualifiedName.endsWith(suffix) && testClassQualifiedName.length() > suffix.length()) {
+        return testClassQualifiedName.substring(0, testClassQualifiedName.length() - suffix.length());
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the class tested by a test class, from the name of the test class, or from its <code>@InjectMocks</code>
+   * field if the test class does not follow the naming convention. Null if it can not be resolved.
+   */
+  public static PsiClass findUnderTestClass(PsiClass testClass) {
+    String underTestQualifiedName = getUnderTestQualifiedName(testClass.getQualifiedName());
+    if (underTestQualifiedName != null) {
+      return findClass(testClass.getProject(), underTestQualifiedName);
+    }
+    return getInjectMocksClasses(testClass).stream().findFirst().orElse(null);
+  }
+
+  /**
+   * @return the resolved classes of the fields of the test class annotated with <code>@InjectMocks</code>.
+   */
+  public static List<PsiClass> getInjectMocksClasses(PsiClass testClass) {
+    List<PsiClass> injectedClasses = new ArrayList<>();
+    for (PsiField field : testClass.getFields()) {
+      if (field.hasAnnotation(FieldsCodeInjector.INJECT_MOCKS_ANNOTATION_QUALIFIED_NAME)) {
+        PsiClass injectedClass = PsiUtil.resolveClassInClassTypeOnly(field.getType());
+        if (injectedClass != null && injectedClass.getQualifiedName() != null) {
+          injectedClasses.add(injectedClass);
+        }
+      }
+    }
+    return injectedClasses;
+  }
+
+  public Project getProject() {
+    return project;
+  }
+
+  public PsiJavaFile getTestFile() {
+    return testFile;
+  }
+
+  public PsiClass getTestClass() {
+    return testClass;
+  }
+
+  /**
+   * @return the qualified name of the class under test, even if it can not be resolved. Null if the test class neither
+   * follows the naming convention of the tests nor has an <code>@InjectMocks</code> field.
+   */
+  public String getUnderTestQualifiedName() {
+    return underTestQualifiedName;
+  }
+
+  /**
+   * @return the class under test, or null if it can not be resolved.
+   */
+  public PsiClass getUnderTestClass() {
+    return underTestClass;
+  }
+
+  /**
+   * @return the analysis of the class under test, which is empty if it can not be resolved.
+   */
+  public UnderTestAnalysis getUnderTestAnalysis() {
+    if (underTestAnalysis == null) {
+      if (underTestClass == null) {
+        underTestAnalysis = UnderTestAnalysis.EMPTY;
+      } else if (analysisCache == null) {
+        underTestAnalysis = new UnderTestAnalyzer(project).analyse(underTestClass);
+      } else {
+        underTestAnalysis = analysisCache.getOrAnalyse(underTestClass);
+      }
+    }
+    return underTestAnalysis;
+  }
+
+  /**
+   * @return the class of the given qualified name, resolved at most once per generation, or null if it does not exist.
+   */
+  public PsiClass findClass(String qualifiedName) {
+    return importOrganizer.findClass(qualifiedName);
+  }
+
+  public boolean hasExistingNestedClass(String name) {
+    return existingNestedClassFieldNames.containsKey(name);
+  }
+
+  public GenerationPlan.Builder getPlan() {
+    return plan;
+  }
+
+  public ClassPlan.Builder testClassPlan() {
+    return plan.testClass();
+  }
+
+  /**
+   * Returns the plan of a nested class of the test class, which is created if it does not exist yet in the test file.
+   */
+  public ClassPlan.Builder nestedClassPlan(String name) {
+    return plan.nestedClass(name, existingNestedClassFieldNames.get(name));
+  }
+
+  private static PsiClass findClass(Project project, String qualifiedName) {
+    GenerationMetrics metrics = GenerationMetrics.getInstance();
+    metrics.count(GenerationMetrics.CLASSES_RESOLVED, 1);
+    try (GenerationMetrics.Span ignored = metrics.startSpan(FIND_CLASS_UNDER_TEST_PHASE)) {
+      return JavaPsiFacade.getInstance(project).findClass(qualifiedName, GlobalSearchScope.allScope(project));
+    }
+  }
+
+  private static Set<String> getFieldNames(PsiClass psiClass) {
+    return Stream.of(psiClass.getFields()).map(NavigationItem::getName).collect(Collectors.toSet());
+  }
+}
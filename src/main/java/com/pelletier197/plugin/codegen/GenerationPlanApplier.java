@@ -0,0 +1,237 @@
+package com.pelletier197.plugin.codegen;
+
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiType;
+import com.pelletier197.plugin.codegen.plan.ClassPlan;
+import com.pelletier197.plugin.codegen.plan.FieldPlan;
+import com.pelletier197.plugin.codegen.plan.GenerationPlan;
+import com.pelletier197.plugin.codegen.utils.MockitoPluginUtils;
+import com.pelletier197.plugin.metrics.GenerationMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.pelletier197.plugin.codegen.NestedInnerTestClassInjector.BEFORE_EACH_ANNOTATION_SHORT_NAME;
+import static com.pelletier197.plugin.codegen.NestedInnerTestClassInjector.NESTED_ANNOTATION_NAME;
+import static com.pelletier197.plugin.codegen.NestedInnerTestClassInjector.SETUP_METHOD_NAME;
+
+/**
+ * Writes a {@link GenerationPlan} into the test file. Must be called from a write action, unless the test file is a
+ * non-physical copy.
+ * <p>
+ * In {@link Mode#TEMPLATE} mode, all the missing members are rendered into a single class body that is parsed once,
+ * and merged into the test class as ranges of elements. In {@link Mode#PER_ELEMENT} mode, each member is created and
+ * added separately, which reparses the test file after each insertion.
+ * <p>
+ * The generated elements are returned so that they can be post-processed at once by the
+ * {@link GeneratedCodeFormatter}.
+ */
+public class GenerationPlanApplier {
+
+  public enum Mode {
+    PER_ELEMENT,
+    TEMPLATE
+  }
+
+  private static final String APPLY_MEMBERS_PHASE = "GenerationPlanApplier.applyMembers";
+
+  private final PsiElementFactory elementFactory;
+  private final ImportOrganizer importOrganizer;
+  private final GenerationMetrics metrics = GenerationMetrics.getInstance();
+  private final Mode mode;
+
+  public GenerationPlanApplier(JavaPsiFacade javaPsiFacade) {
+    this(javaPsiFacade, Mode.TEMPLATE);
+  }
+
+  public GenerationPlanApplier(JavaPsiFacade javaPsiFacade, Mode mode) {
+    this.elementFactory = javaPsiFacade.getElementFactory();
+    this.importOrganizer = new ImportOrganizer(javaPsiFacade);
+    this.mode = mode;
+  }
+
+  /**
+   * @return the annotations, fields and nested classes added to the test class.
+   */
+  public List<PsiElement> apply(PsiJavaFile psiJavaFile, GenerationPlan plan) {
+    PsiClass testClass = MockitoPluginUtils.getUnitTestClass(psiJavaFile);
+    List<PsiElement> generatedElements = new ArrayList<>();
+
+    try (GenerationMetrics.Span ignored = metrics.startSpan(APPLY_MEMBERS_PHASE)) {
+      for (String annotation : plan.getTestClassAnnotations()) {
+        generatedElements.add(testClass.getModifierList().addAnnotation(annotation));
+      }
+
+      if (mode == Mode.TEMPLATE) {
+        applyMembersFromTemplate(testClass, plan);
+      } else {
+        applyMembersPerElement(testClass, plan);
+      }
+      collectGeneratedMembers(testClass, plan, generatedElements);
+    }
+    metrics.count(GenerationMetrics.ELEMENTS_INSERTED, countMembers(plan));
+
+    importOrganizer.addImports(psiJavaFile, plan.getClassImports(), plan.getStaticImports());
+    return generatedElements;
+  }
+
+  private static void collectGeneratedMembers(PsiClass testClass, GenerationPlan plan, List<PsiElement> generatedElements) {
+    collectGeneratedFields(testClass, plan.getTestClass(), generatedElements);
+
+    for (ClassPlan nestedClass : plan.getNestedClasses()) {
+      PsiClass innerClass = testClass.findInnerClassByName(nestedClass.getName(), false);
+      if (innerClass == null) {
+        continue;
+      }
+
+      if (nestedClass.isCreated()) {
+        generatedElements.add(innerClass);
+      } else {
+        collectGeneratedFields(innerClass, nestedClass, generatedElements);
+      }
+    }
+  }
+
+  private static void collectGeneratedFields(PsiClass psiClass, ClassPlan classPlan, List<PsiElement> generatedElements) {
+    for (FieldPlan field : classPlan.getFields()) {
+      PsiField psiField = psiClass.findFieldByName(field.getName(), false);
+      if (psiField != null) {
+        generatedElements.add(psiField);
+      }
+    }
+  }
+
+  private static int countMembers(GenerationPlan plan) {
+    int count = plan.getTestClassAnnotations().size() + plan.getTestClass().getFields().size();
+    for (ClassPlan nestedClass : plan.getNestedClasses()) {
+      count += nestedClass.getFields().size() + (nestedClass.isCreated() ? 1 : 0);
+    }
+    return count;
+  }
+
+  private void applyMembersPerElement(PsiClass testClass, GenerationPlan plan) {
+    addFields(testClass, plan.getTestClass());
+
+    for (ClassPlan nestedClass : plan.getNestedClasses()) {
+      if (nestedClass.isCreated()) {
+        PsiClass innerClass = createTestNestedClass(nestedClass.getName());
+        addFields(innerClass, nestedClass);
+        testClass.addBefore(innerClass, testClass.getRBrace());
+      } else {
+        PsiClass innerClass = testClass.findInnerClassByName(nestedClass.getName(), false);
+        if (innerClass != null) {
+          addFields(innerClass, nestedClass);
+        }
+      }
+    }
+  }
+
+  /**
+   * Adds the fields after the last field of the class, as {@link #addFieldRange} does, so that both modes write the
+   * same file.
+   */
+  private void addFields(PsiClass psiClass, ClassPlan classPlan) {
+    for (FieldPlan field : classPlan.getFields()) {
+      PsiElement newField = elementFactory.createFieldFromText(field.getText(), psiClass);
+      psiClass.addAfter(newField, getFieldAnchor(psiClass));
+    }
+  }
+
+  private PsiClass createTestNestedClass(String innerClassTestName) {
+    PsiClass innerClass = elementFactory.createClass(innerClassTestName);
+
+    innerClass.getModifierList().addAnnotation(NESTED_ANNOTATION_NAME);
+    innerClass.getModifierList().setModifierProperty(PsiModifier.PACKAGE_LOCAL, true);
+
+    addBeforeEachMethod(innerClass);
+
+    return innerClass;
+  }
+
+  private void addBeforeEachMethod(PsiClass innerClass) {
+    PsiMethod beforeEachMethod = elementFactory.createMethod(SETUP_METHOD_NAME, PsiType.VOID);
+    beforeEachMethod.getModifierList().addAnnotation(BEFORE_EACH_ANNOTATION_SHORT_NAME);
+    beforeEachMethod.getModifierList().setModifierProperty(PsiModifier.PACKAGE_LOCAL, true);
+    innerClass.add(beforeEachMethod);
+  }
+
+  /**
+   * Renders the fields of the test class, then the created nested classes, and finally one carrier class per
+   * existing nested class holding the fields to add to it. The template is parsed once, and each part of it is
+   * merged as a single range.
+   */
+  private void applyMembersFromTemplate(PsiClass testClass, GenerationPlan plan) {
+    StringBuilder template = new StringBuilder();
+    renderFields(template, plan.getTestClass());
+
+    List<ClassPlan> createdClasses = new ArrayList<>();
+    List<ClassPlan> existingClasses = new ArrayList<>();
+    for (ClassPlan nestedClass : plan.getNestedClasses()) {
+      (nestedClass.isCreated() ? createdClasses : existingClasses).add(nestedClass);
+    }
+
+    createdClasses.forEach(nestedClass -> renderNestedClass(template, nestedClass));
+    existingClasses.forEach(nestedClass -> renderCarrierClass(template, nestedClass));
+
+    if (template.length() == 0) {
+      return;
+    }
+
+    PsiClass templateClass = elementFactory.createClassFromText(template.toString(), testClass);
+    PsiField[] templateFields = templateClass.getFields();
+    PsiClass[] templateClasses = templateClass.getInnerClasses();
+
+    if (templateFields.length > 0) {
+      addFieldRange(testClass, templateFields[0], templateFields[templateFields.length - 1]);
+    }
+
+    if (!createdClasses.isEmpty()) {
+      testClass.addRangeBefore(templateClasses[0], templateClasses[createdClasses.size() - 1], testClass.getRBrace());
+    }
+
+    for (int i = 0; i < existingClasses.size(); i++) {
+      PsiClass innerClass = testClass.findInnerClassByName(existingClasses.get(i).getName(), false);
+      PsiField[] carrierFields = templateClasses[createdClasses.size() + i].getFields();
+      if (innerClass != null && carrierFields.length > 0) {
+        addFieldRange(innerClass, carrierFields[0], carrierFields[carrierFields.length - 1]);
+      }
+    }
+  }
+
+  private void addFieldRange(PsiClass psiClass, PsiElement first, PsiElement last) {
+    psiClass.addRangeAfter(first, last, getFieldAnchor(psiClass));
+  }
+
+  private static PsiElement getFieldAnchor(PsiClass psiClass) {
+    PsiField[] existingFields = psiClass.getFields();
+    return existingFields.length > 0 ? existingFields[existingFields.length - 1] : psiClass.getLBrace();
+  }
+
+  private void renderFields(StringBuilder template, ClassPlan classPlan) {
+    for (FieldPlan field : classPlan.getFields()) {
+      template.append(field.getText()).append('\n');
+    }
+  }
+
+  private void renderNestedClass(StringBuilder template, ClassPlan nestedClass) {
+    template.append('@').append(NESTED_ANNOTATION_NAME).append('\n')
+            .append("class ").append(nestedClass.getName()).append(" {\n");
+    renderFields(template, nestedClass);
+    template.append('@').append(BEFORE_EACH_ANNOTATION_SHORT_NAME).append('\n')
+            .append("void ").append(SETUP_METHOD_NAME).append("() {\n}\n")
+            .append("}\n");
+  }
+
+  private void renderCarrierClass(StringBuilder template, ClassPlan nestedClass) {
+    template.append("class ").append(nestedClass.getName()).append(" {\n");
+    renderFields(template, nestedClass);
+    template.append("}\n");
+  }
+}
@@ -0,0 +1,134 @@
+package com.pelletier197.plugin.codegen;
+
+import com.intellij.lang.java.JavaLanguage;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.pelletier197.plugin.codegen.analysis.AnalysisCache;
+import com.pelletier197.plugin.codegen.plan.GenerationPlan;
+import com.pelletier197.plugin.codegen.plan.ModificationStamp;
+import com.pelletier197.plugin.codegen.utils.CommonCodeInjector;
+import com.pelletier197.plugin.codegen.value.ValueProviderRegistry;
+import com.pelletier197.plugin.metrics.GenerationMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs all the injectors against a test file to compute what is missing from it. The planner only reads the PSI,
+ * and must therefore be called from a read action. The returned plan is applied with {@link GenerationPlanApplier}.
+ */
+public class GenerationPlanner {
+
+  /**
+   * Notified around each injector run by the planner, for instance to measure them.
+   */
+  public interface InjectorListener {
+    default void beforeInject(CodeInjector injector) {
+    }
+
+    default void afterInject(CodeInjector injector) {
+    }
+  }
+
+  private static final InjectorListener NO_LISTENER = new InjectorListener() {
+  };
+
+  private final InjectorListener listener;
+  private final AnalysisCache analysisCache;
+
+  public GenerationPlanner() {
+    this(NO_LISTENER);
+  }
+
+  public GenerationPlanner(InjectorListener listener) {
+    this(listener, null);
+  }
+
+  private GenerationPlanner(InjectorListener listener, AnalysisCache analysisCache) {
+    this.listener = listener;
+    this.analysisCache = analysisCache;
+  }
+
+  /**
+   * @return a planner that reuses the analyses of the classes under test persisted by the cache, for the generations
+   * that run over many files whose classes under test are mostly unchanged.
+   */
+  public GenerationPlanner withAnalysisCache(AnalysisCache analysisCache) {
+    return new GenerationPlanner(listener, analysisCache);
+  }
+
+  public GenerationPlan plan(PsiJavaFile psiJavaFile) {
+    return plan(psiJavaFile, true);
+  }
+
+  /**
+   * Only plans the members that are missing for the fields and methods of the class under test, leaving aside the
+   * runner annotation and the static imports. Used to keep a test class in sync with its class under test.
+   */
+  public GenerationPlan planMissingMembers(PsiJavaFile psiJavaFile) {
+    return plan(psiJavaFile, false);
+  }
+
+  private GenerationPlan plan(PsiJavaFile psiJavaFile, boolean includeRunnerAndStaticImports) {
+    GenerationContext context = GenerationContext.create(psiJavaFile, getModificationStamp(psiJavaFile), analysisCache);
+    CommonCodeInjector commonCodeInjector = new CommonCodeInjector(context);
+
+    List<CodeInjector> injectors = new ArrayList<>();
+    if (includeRunnerAndStaticImports) {
+      injectors.add(new RunnerCodeInjector(context));
+    }
+    injectors.add(new FieldsCodeInjector(context, commonCodeInjector));
+    injectors.add(new NestedInnerTestClassInjector(context, commonCodeInjector));
+    if (includeRunnerAndStaticImports) {
+      injectors.add(new StaticImportsInjector(context));
+    }
+
+    GenerationMetrics metrics = GenerationMetrics.getInstance();
+    for (CodeInjector injector : injectors) {
+      listener.beforeInject(injector);
+      try (GenerationMetrics.Span ignored = metrics.startSpan(injector.getClass().getSimpleName())) {
+        injector.inject();
+      } finally {
+        listener.afterInject(injector);
+      }
+    }
+
+    return context.getPlan().build();
+  }
+
+  /**
+   * @return true if neither the test file, the Java structure of the project nor the settings changed since the plan
+   * was computed.
+   * Edits inside the code blocks of other files, for instance while the plan is computed in the background, do not
+   * make the plan stale.
+   */
+  public static boolean isUpToDate(PsiJavaFile psiJavaFile, GenerationPlan plan) {
+    return isUpToDate(psiJavaFile, plan, 0);
+  }
+
+  /**
+   * Same as {@link #isUpToDate(PsiJavaFile, GenerationPlan)}, expecting the given number of changes of the Java
+   * structure since the plan was computed. Used by the generations that write other test files after the plans are
+   * computed, where their own changes must not make the remaining plans stale.
+   */
+  public static boolean isUpToDate(PsiJavaFile psiJavaFile, GenerationPlan plan, long ownJavaStructureChanges) {
+    return getModificationStamp(psiJavaFile).equals(plan.getModificationStamp().withJavaStructureChanges(ownJavaStructureChanges));
+  }
+
+  /**
+   * @return the modification count of the Java structure of the project, see {@link ModificationStamp}.
+   */
+  public static long getJavaStructureCount(Project project) {
+    return PsiModificationTracker.getInstance(project).forLanguage(JavaLanguage.INSTANCE).getModificationCount();
+  }
+
+  private static ModificationStamp getModificationStamp(PsiJavaFile psiJavaFile) {
+    Project project = psiJavaFile.getProject();
+    return new ModificationStamp(
+            psiJavaFile.getModificationStamp(),
+            getJavaStructureCount(project),
+            ValueProviderRegistry.getInstance(project).getModificationCount()
+    );
+  }
+}
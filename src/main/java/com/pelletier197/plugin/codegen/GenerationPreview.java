@@ -0,0 +1,63 @@
+package com.pelletier197.plugin.codegen;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiJavaFile;
+import com.pelletier197.plugin.codegen.plan.GenerationPlan;
+
+import java.util.List;
+
+/**
+ * Text of a test file before and after the missing code is generated. The plan is applied to a non-physical copy of
+ * the test file, so that the preview never modifies the file, and can be computed in a read action on a background
+ * thread.
+ */
+public final class GenerationPreview {
+
+  private final String fileName;
+  private final String textBefore;
+  private final String textAfter;
+  private final GenerationPlan plan;
+
+  private GenerationPreview(String fileName, String textBefore, String textAfter, GenerationPlan plan) {
+    this.fileName = fileName;
+    this.textBefore = textBefore;
+    this.textAfter = textAfter;
+    this.plan = plan;
+  }
+
+  public static GenerationPreview compute(PsiJavaFile psiJavaFile) {
+    GenerationPlan plan = new GenerationPlanner().plan(psiJavaFile);
+    String textBefore = psiJavaFile.getText();
+    if (plan.isEmpty()) {
+      return new GenerationPreview(psiJavaFile.getName(), textBefore, textBefore, plan);
+    }
+
+    Project project = psiJavaFile.getProject();
+    PsiJavaFile copy = (PsiJavaFile) psiJavaFile.copy();
+    List<PsiElement> generatedElements = new GenerationPlanApplier(JavaPsiFacade.getInstance(project)).apply(copy, plan);
+    new GeneratedCodeFormatter(project).formatCopy(copy, generatedElements);
+    return new GenerationPreview(psiJavaFile.getName(), textBefore, copy.getText(), plan);
+  }
+
+  public String getFileName() {
+    return fileName;
+  }
+
+  public String getTextBefore() {
+    return textBefore;
+  }
+
+  public String getTextAfter() {
+    return textAfter;
+  }
+
+  public GenerationPlan getPlan() {
+    return plan;
+  }
+
+  public boolean isEmpty() {
+    return plan.isEmpty();
+  }
+}
@@ -1,52 +1,162 @@
 package com.pelletier197.plugin.codegen;
 
-import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiImportList;
+import com.intellij.psi.PsiImportStatement;
 import com.intellij.psi.PsiImportStaticStatement;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
 import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.ProjectScope;
-import com.intellij.refactoring.util.CommonRefactoringUtil;
+import com.pelletier197.plugin.codegen.plan.StaticImportPlan;
+import com.pelletier197.plugin.metrics.GenerationMetrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
+ * Resolves and writes the imports collected during the generation. Each qualified name is resolved at most once per
+ * organizer, and only the missing imports are added. Each import is placed by the platform where the import layout of
+ * the project expects it, so that the file does not need to be optimized afterwards.
+ * <p>
  * Created by przemek on 8/9/15.
  */
 public class ImportOrganizer {
+  private static final String JAVA_LANG_PACKAGE = "java.lang";
+  private static final String RESOLVE_PHASE = "ImportOrganizer.resolve";
+  private static final String INSERT_PHASE = "ImportOrganizer.insert";
 
   private final JavaPsiFacade javaPsiFacade;
+  private final JavaCodeStyleManager javaCodeStyleManager;
   private final GlobalSearchScope projectSearchScope;
+  private final Map<String, Optional<PsiClass>> resolvedClasses = new HashMap<>();
+  private final GenerationMetrics metrics = GenerationMetrics.getInstance();
 
   public ImportOrganizer(JavaPsiFacade javaPsiFacade) {
     this.javaPsiFacade = javaPsiFacade;
+    this.javaCodeStyleManager = JavaCodeStyleManager.getInstance(javaPsiFacade.getProject());
     this.projectSearchScope = ProjectScope.getAllScope(javaPsiFacade.getProject());
   }
 
-  public void addClassImport(PsiJavaFile psiJavaFile, String className) {
-    PsiClass psiClass = javaPsiFacade.findClass(className, projectSearchScope);
-    if (psiClass == null) {
-      return;
+  /**
+   * Returns the static imports of the file, as <code>className.memberName</code> or <code>className.*</code>.
+   */
+  public static Set<String> getStaticImports(PsiJavaFile psiJavaFile) {
+    Set<String> staticImports = new HashSet<>();
+    PsiImportList importList = psiJavaFile.getImportList();
+    if (importList == null) {
+      return staticImports;
     }
 
-    psiJavaFile.importClass(psiClass);
+    for (PsiImportStaticStatement staticImport : importList.getImportStaticStatements()) {
+      PsiJavaCodeReferenceElement reference = staticImport.getImportReference();
+      if (reference != null) {
+        String qualifiedName = reference.getQualifiedName();
+        staticImports.add(staticImport.isOnDemand() ? qualifiedName + "." + StaticImportPlan.ALL_MEMBERS : qualifiedName);
+      }
+    }
+    return staticImports;
   }
 
-  protected void addStaticImportForAllMethods(PsiJavaFile psiJavaFile, String className) {
-    PsiClass psiClass = javaPsiFacade.findClass(className, projectSearchScope);
-    if (psiClass == null) {
+  public void addImports(PsiJavaFile psiJavaFile, Collection<String> classNames, Collection<StaticImportPlan> staticImports) {
+    PsiImportList importList = psiJavaFile.getImportList();
+    if (importList == null) {
       return;
     }
-    PsiImportStaticStatement importStaticStatement = javaPsiFacade.getElementFactory().createImportStaticStatement(psiClass, "*");
-    psiJavaFile.getImportList().add(importStaticStatement);
-  }
 
-  protected void addStaticImport(PsiJavaFile psiJavaFile, String importClassName, String importSubElementName) {
-    PsiClass psiClass = javaPsiFacade.findClass(importClassName, projectSearchScope);
-    if (psiClass == null) {
+    List<PsiClass> classImports;
+    List<PsiImportStaticStatement> staticImportStatements;
+    try (GenerationMetrics.Span ignored = metrics.startSpan(RESOLVE_PHASE)) {
+      classImports = getMissingClassImports(psiJavaFile, importList, classNames);
+      staticImportStatements = getMissingStaticImports(staticImports);
+    }
+    if (classImports.isEmpty() && staticImportStatements.isEmpty()) {
       return;
     }
 
-    PsiImportStaticStatement importStaticStatement = javaPsiFacade.getElementFactory().createImportStaticStatement(psiClass, importSubElementName);
-    psiJavaFile.getImportList().add(importStaticStatement);
+    try (GenerationMetrics.Span ignored = metrics.startSpan(INSERT_PHASE)) {
+      for (PsiClass psiClass : classImports) {
+        javaCodeStyleManager.addImport(psiJavaFile, psiClass);
+      }
+      // Without an anchor, the import list places each statement where the import layout expects it
+      for (PsiImportStaticStatement staticImportStatement : staticImportStatements) {
+        importList.add(staticImportStatement);
+      }
+    }
+    metrics.count(GenerationMetrics.ELEMENTS_INSERTED, classImports.size() + staticImportStatements.size());
+  }
+
+  /**
+   * @return the class of the given qualified name, resolved at most once per organizer, or null if it does not exist.
+   */
+  public PsiClass findClass(String className) {
+    return resolvedClasses.computeIfAbsent(className, name -> {
+      metrics.count(GenerationMetrics.CLASSES_RESOLVED, 1);
+      return Optional.ofNullable(javaPsiFacade.findClass(name, projectSearchScope));
+    }).orElse(null);
+  }
+
+  private List<PsiClass> getMissingClassImports(PsiJavaFile psiJavaFile, PsiImportList importList, Collection<String> classNames) {
+    Map<String, String> importedShortNames = getSingleClassImportsByShortName(importList);
+    Map<String, PsiClass> classImports = new TreeMap<>();
+    for (String className : classNames) {
+      PsiClass psiClass = findClass(className);
+      if (psiClass != null && needsImport(psiJavaFile, importList, importedShortNames, psiClass)) {
+        importedShortNames.put(psiClass.getName(), psiClass.getQualifiedName());
+        classImports.put(psiClass.getQualifiedName(), psiClass);
+      }
+    }
+    return new ArrayList<>(classImports.values());
+  }
+
+  private List<PsiImportStaticStatement> getMissingStaticImports(Collection<StaticImportPlan> staticImports) {
+    PsiElementFactory elementFactory = javaPsiFacade.getElementFactory();
+    Map<String, PsiImportStaticStatement> statements = new TreeMap<>();
+    for (StaticImportPlan staticImport : staticImports) {
+      PsiClass psiClass = findClass(staticImport.getClassName());
+      if (psiClass != null) {
+        statements.put(psiClass.getQualifiedName() + "." + staticImport.getMemberName(),
+                elementFactory.createImportStaticStatement(psiClass, staticImport.getMemberName()));
+      }
+    }
+    return new ArrayList<>(statements.values());
+  }
+
+  private boolean needsImport(PsiJavaFile psiJavaFile, PsiImportList importList, Map<String, String> importedShortNames, PsiClass psiClass) {
+    String qualifiedName = psiClass.getQualifiedName();
+    if (qualifiedName == null) {
+      return false;
+    }
+    String packageName = StringUtil.getPackageName(qualifiedName);
+    if (packageName.equals(JAVA_LANG_PACKAGE) || packageName.equals(psiJavaFile.getPackageName())) {
+      return false;
+    }
+    if (importList.findOnDemandImportStatement(packageName) != null) {
+      return false;
+    }
+    // Either already imported, or another class with the same short name is, in which case the name stays qualified
+    return !importedShortNames.containsKey(psiClass.getName());
+  }
+
+  private Map<String, String> getSingleClassImportsByShortName(PsiImportList importList) {
+    Map<String, String> importedShortNames = new HashMap<>();
+    for (PsiImportStatement importStatement : importList.getImportStatements()) {
+      String qualifiedName = importStatement.getQualifiedName();
+      if (!importStatement.isOnDemand() && qualifiedName != null) {
+        importedShortNames.put(StringUtil.getShortName(qualifiedName), qualifiedName);
+      }
+    }
+    return importedShortNames;
   }
 }
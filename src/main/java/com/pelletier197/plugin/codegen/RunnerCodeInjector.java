@@ -1,10 +1,9 @@
 package com.pelletier197.plugin.codegen;
 
 import com.intellij.psi.PsiAnnotation;
-import com.intellij.psi.PsiClass;
-import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
 import com.intellij.psi.PsiModifierList;
-import com.pelletier197.plugin.codegen.utils.MockitoPluginUtils;
+import com.pelletier197.plugin.codegen.plan.GenerationPlan;
 
 /**
  * Inserts annotation MockitoJUnitRunner.class annotation for the test.
@@ -18,27 +17,33 @@ public class RunnerCodeInjector implements CodeInjector {
     public static final String EXTEND_WITH_SHORT_CLASS_NAME = "ExtendWith";
     public static final String EXTEND_WITH_QUALIFIED_CLASS_NAME = "org.junit.jupiter.api.extension." + EXTEND_WITH_SHORT_CLASS_NAME;
 
-    private final PsiJavaFile psiJavaFile;
-    private final ImportOrganizer importOrganizer;
+    private final GenerationContext context;
 
-    public RunnerCodeInjector(PsiJavaFile psiJavaFile, ImportOrganizer importOrganizer) {
-        this.psiJavaFile = psiJavaFile;
-        this.importOrganizer = importOrganizer;
+    public RunnerCodeInjector(GenerationContext context) {
+        this.context = context;
     }
 
     public void inject() {
-        PsiClass psiClass = MockitoPluginUtils.getUnitTestClass(psiJavaFile);
-        PsiModifierList modifierList = psiClass.getModifierList();
+        PsiModifierList modifierList = context.getTestClass().getModifierList();
         if (!containsRunnerAnnotation(modifierList)) {
-            modifierList.addAnnotation(String.format("%s(%s.class)", EXTEND_WITH_SHORT_CLASS_NAME, MOCKITO_EXTENSION_SHORT_CLASS_NAME));
-            importOrganizer.addClassImport(psiJavaFile, MOCKITO_EXTENSION_QUALIFIED_CLASS_NAME);
-            importOrganizer.addClassImport(psiJavaFile, EXTEND_WITH_QUALIFIED_CLASS_NAME);
+            GenerationPlan.Builder plan = context.getPlan();
+            plan.addTestClassAnnotation(String.format("%s(%s.class)", EXTEND_WITH_SHORT_CLASS_NAME, MOCKITO_EXTENSION_SHORT_CLASS_NAME));
+            plan.addClassImport(MOCKITO_EXTENSION_QUALIFIED_CLASS_NAME);
+            plan.addClassImport(EXTEND_WITH_QUALIFIED_CLASS_NAME);
         }
     }
 
-    private boolean containsRunnerAnnotation(PsiModifierList modifierList) {
+    /**
+     * An <code>@ExtendWith</code> that does not resolve, for instance while the dependencies of the project are not
+     * imported yet, is recognized by its short name, so that a second one is not added.
+     */
+    public static boolean containsRunnerAnnotation(PsiModifierList modifierList) {
+        if (modifierList.hasAnnotation(EXTEND_WITH_QUALIFIED_CLASS_NAME)) {
+            return true;
+        }
         for (PsiAnnotation psiAnnotation : modifierList.getAnnotations()) {
-            if (psiAnnotation.getQualifiedName().endsWith(EXTEND_WITH_SHORT_CLASS_NAME)) {
+            PsiJavaCodeReferenceElement reference = psiAnnotation.getNameReferenceElement();
+            if (reference != null && EXTEND_WITH_SHORT_CLASS_NAME.equals(reference.getReferenceName()) && reference.resolve() == null) {
                 return true;
             }
         }
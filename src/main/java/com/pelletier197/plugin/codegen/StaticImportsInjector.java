@@ -1,9 +1,8 @@
 package com.pelletier197.plugin.codegen;
 
-import com.intellij.openapi.project.Project;
-import com.intellij.psi.JavaPsiFacade;
-import com.intellij.psi.PsiImportStaticStatement;
-import com.intellij.psi.PsiJavaFile;
+import com.pelletier197.plugin.codegen.plan.StaticImportPlan;
+
+import java.util.Set;
 
 /**
  * Inserts code for static imports for Mockito.
@@ -19,40 +18,42 @@ public class StaticImportsInjector implements CodeInjector {
   public static final String ASSERTJ_ASSERT_THAT_METHOD_NAME = "assertThat";
   public static final String GROUPED_ASSERTJ_STATIC_IMPORT = ASSERTJ_ASSERTIONS_QUALIFIED_NAME + "." + ASSERTJ_ASSERT_THAT_METHOD_NAME;
 
-  private final PsiJavaFile psiJavaFile;
-  private final ImportOrganizer importOrganizer;
-  private final Project project;
-  private final JavaPsiFacade javaPsiFacade;
+  private final GenerationContext context;
 
 
-  public StaticImportsInjector(PsiJavaFile psiJavaFile, ImportOrganizer importOrganizer) {
-    this.psiJavaFile = psiJavaFile;
-    this.importOrganizer = importOrganizer;
-    this.project = psiJavaFile.getProject();
-    this.javaPsiFacade = JavaPsiFacade.getInstance(project);
+  public StaticImportsInjector(GenerationContext context) {
+    this.context = context;
   }
 
   @Override
   public void inject() {
-    addAssertJImport();
-    addMockitoImport();
+    Set<String> existingStaticImports = ImportOrganizer.getStaticImports(context.getTestFile());
+    addAssertJImport(existingStaticImports);
+    addMockitoImport(existingStaticImports);
   }
 
-  private void addMockitoImport() {
-    for (PsiImportStaticStatement staticImport : psiJavaFile.getImportList().getImportStaticStatements()) {
-      if (staticImport.getText().contains(GROUPED_MOCKITO_STATIC_IMPORT)) {
-        return;
-      }
+  private void addMockitoImport(Set<String> existingStaticImports) {
+    if (existingStaticImports.contains(GROUPED_MOCKITO_STATIC_IMPORT)) {
+      return;
+    }
+    if (isMissingClass(MOCKITO_FULLY_QUALIFIED_CLASS_NAME)) {
+      return;
     }
-    importOrganizer.addStaticImportForAllMethods(psiJavaFile, MOCKITO_FULLY_QUALIFIED_CLASS_NAME);
+    context.getPlan().addStaticImport(MOCKITO_FULLY_QUALIFIED_CLASS_NAME, StaticImportPlan.ALL_MEMBERS);
   }
 
-  private void addAssertJImport() {
-    for (PsiImportStaticStatement staticImport : psiJavaFile.getImportList().getImportStaticStatements()) {
-      if (staticImport.getText().contains(GROUPED_ASSERTJ_STATIC_IMPORT)) {
-        return;
-      }
+  private void addAssertJImport(Set<String> existingStaticImports) {
+    if (existingStaticImports.contains(GROUPED_ASSERTJ_STATIC_IMPORT)
+            || existingStaticImports.contains(ASSERTJ_ASSERTIONS_QUALIFIED_NAME + "." + StaticImportPlan.ALL_MEMBERS)) {
+      return;
+    }
+    if (isMissingClass(ASSERTJ_ASSERTIONS_QUALIFIED_NAME)) {
+      return;
     }
-    importOrganizer.addStaticImport(psiJavaFile, ASSERTJ_ASSERTIONS_QUALIFIED_NAME, ASSERTJ_ASSERT_THAT_METHOD_NAME);
+    context.getPlan().addStaticImport(ASSERTJ_ASSERTIONS_QUALIFIED_NAME, ASSERTJ_ASSERT_THAT_METHOD_NAME);
+  }
+
+  private boolean isMissingClass(String className) {
+    return context.findClass(className) == null;
   }
 }
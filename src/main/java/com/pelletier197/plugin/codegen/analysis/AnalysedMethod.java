@@ -0,0 +1,25 @@
+package com.pelletier197.plugin.codegen.analysis;
+
+import java.util.List;
+
+/**
+ * Method of the class under test for which a nested test class is generated.
+ */
+public final class AnalysedMethod {
+
+  private final String name;
+  private final List<AnalysedVariable> parameters;
+
+  AnalysedMethod(String name, List<AnalysedVariable> parameters) {
+    this.name = name;
+    this.parameters = List.copyOf(parameters);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public List<AnalysedVariable> getParameters() {
+    return parameters;
+  }
+}
@@ -0,0 +1,89 @@
+package com.pelletier197.plugin.codegen.analysis;
+
+import com.pelletier197.plugin.codegen.utils.TypeClassificationCache.TypeKind;
+
+import java.util.List;
+
+/**
+ * Type of a field or of a parameter of the class under test, as classified for the generated code. The type is kept
+ * as plain text so that it can be cached outside of the read action it was analysed in.
+ */
+public final class AnalysedType {
+
+  private final TypeKind kind;
+  private final String presentableText;
+  private final String canonicalText;
+  private final String enumQualifiedName;
+  private final String enumFirstConstant;
+  private final String suggestedConstantName;
+  private final String suggestedFieldName;
+  private final List<AnalysedVariable> recordComponents;
+
+  AnalysedType(TypeKind kind,
+               String presentableText,
+               String canonicalText,
+               String enumQualifiedName,
+               String enumFirstConstant,
+               String suggestedConstantName,
+               String suggestedFieldName,
+               List<AnalysedVariable> recordComponents) {
+    this.kind = kind;
+    this.presentableText = presentableText;
+    this.canonicalText = canonicalText;
+    this.enumQualifiedName = enumQualifiedName;
+    this.enumFirstConstant = enumFirstConstant;
+    this.suggestedConstantName = suggestedConstantName;
+    this.suggestedFieldName = suggestedFieldName;
+    this.recordComponents = recordComponents;
+  }
+
+  public TypeKind getKind() {
+    return kind;
+  }
+
+  public String getPresentableText() {
+    return presentableText;
+  }
+
+  public String getCanonicalText() {
+    return canonicalText;
+  }
+
+  /**
+   * @return the qualified name of the enum, or null if the type is not an enum.
+   */
+  public String getEnumQualifiedName() {
+    return enumQualifiedName;
+  }
+
+  /**
+   * @return the name of the first constant of the enum, or null if the type is not an enum or has no constant.
+   */
+  public String getEnumFirstConstant() {
+    return enumFirstConstant;
+  }
+
+  /**
+   * @return the name suggested for a constant of this type. Only suggested for the elements of collections, since the
+   * other constants are named after their variable.
+   */
+  public String getSuggestedConstantName() {
+    return suggestedConstantName;
+  }
+
+  /**
+   * @return the name suggested for a mock of this type. Only suggested for the elements of collections, since the
+   * other mocks are named after their variable.
+   */
+  public String getSuggestedFieldName() {
+    return suggestedFieldName;
+  }
+
+  /**
+   * @return the components of the record, or null if the type is not a record or if it is the component of another
+   * record, in which case its components are not analysed.
+   */
+  public List<AnalysedVariable> getRecordComponents() {
+    return recordComponents;
+  }
+}
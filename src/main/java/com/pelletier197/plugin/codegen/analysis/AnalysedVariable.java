@@ -0,0 +1,33 @@
+package com.pelletier197.plugin.codegen.analysis;
+
+/**
+ * Non-static field or parameter of the class under test, for which a mock or a constant may be generated.
+ */
+public final class AnalysedVariable {
+
+  private final String name;
+  private final AnalysedType type;
+  private final AnalysedType elementType;
+
+  AnalysedVariable(String name, AnalysedType type, AnalysedType elementType) {
+    this.name = name;
+    this.type = type;
+    this.elementType = elementType;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public AnalysedType getType() {
+    return type;
+  }
+
+  /**
+   * @return the type of the elements of a collection, or null if the variable is not a collection or if the type of
+   * its elements is unknown.
+   */
+  public AnalysedType getElementType() {
+    return elementType;
+  }
+}
@@ -0,0 +1,420 @@
+package com.pelletier197.plugin.codegen.analysis;
+
+import com.intellij.ide.plugins.IdeaPluginDescriptor;
+import com.intellij.ide.plugins.PluginManagerCore;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.extensions.PluginId;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCompiledElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.PsiShortNamesCache;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.DigestUtil;
+import com.intellij.util.io.IOUtil;
+import com.pelletier197.plugin.codegen.utils.MockitoPluginUtils;
+import com.pelletier197.plugin.codegen.value.ValueProviderRegistry;
+import com.pelletier197.plugin.metrics.GenerationMetrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Persists the analyses of the classes under test in the system directory of the IDE, so that the unchanged classes
+ * are not analysed again by the bulk and headless generations, even across sessions and branches.
+ * <p>
+ * Each analysis is stored in its own small file, named after the hash of the content of the class under test, its
+ * qualified name, the version of the plugin and the types supported by the value providers. The entry also records
+ * the hash, the time stamp and the length of every other file the analysis read, such as the super classes and the
+ * classes of the mocked types, and is ignored as soon as one of them changes. A file whose time stamp and length are
+ * unchanged is not hashed again. The classes with the short name of a type that could not be resolved are recorded as
+ * well, so that the entry is ignored once the missing class is created.
+ * The least recently used entries are evicted once the cache grows over its maximum size, which can be changed with
+ * <code>-Dmockito.gen.analysis.cache.size=&lt;bytes&gt;</code>.
+ */
+@Service
+public final class AnalysisCache {
+  public static final String HITS = "analysisCacheHits";
+  public static final String MISSES = "analysisCacheMisses";
+
+  private static final Logger LOG = Logger.getInstance(AnalysisCache.class);
+  private static final String MAX_SIZE_PROPERTY = "mockito.gen.analysis.cache.size";
+  private static final long DEFAULT_MAX_SIZE_BYTES = 64L * 1024 * 1024;
+  private static final String ENTRY_EXTENSION = ".bin";
+  private static final int ENTRY_VERSION = 2;
+  private static final long UNSAVED_TIME_STAMP = -1;
+
+  private final Path directory = Path.of(PathManager.getSystemPath(), "mockito-gen", "analysis");
+  private final long maxSizeBytes = Long.getLong(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE_BYTES);
+  private final String pluginVersion = getPluginVersion();
+  private final AtomicLong sizeBytes = new AtomicLong(-1);
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final Object evictionLock = new Object();
+
+  public static AnalysisCache getInstance() {
+    return ApplicationManager.getApplication().getService(AnalysisCache.class);
+  }
+
+  /**
+   * Returns the cached analysis of a class under test if neither it nor the files it depends on changed since it was
+   * cached, and otherwise analyses it and caches the result. Must be called from a read action.
+   */
+  public UnderTestAnalysis getOrAnalyse(PsiClass underTestClass) {
+    PsiFile psiFile = underTestClass.getContainingFile();
+    VirtualFile file = psiFile == null ? null : psiFile.getVirtualFile();
+    String qualifiedName = underTestClass.getQualifiedName();
+    if (file == null || qualifiedName == null || psiFile instanceof PsiCompiledElement) {
+      return new UnderTestAnalyzer(underTestClass.getProject()).analyse(underTestClass);
+    }
+
+    GenerationMetrics metrics = GenerationMetrics.getInstance();
+    String supportedValueTypes = ValueProviderRegistry.getInstance(underTestClass.getProject()).getFingerprint();
+    Path entry = directory.resolve(getKey(qualifiedName, hash(file), supportedValueTypes) + ENTRY_EXTENSION);
+    UnderTestAnalysis cached = read(entry, underTestClass.getProject());
+    if (cached != null) {
+      hits.incrementAndGet();
+      metrics.count(HITS, 1);
+      return cached;
+    }
+
+    misses.incrementAndGet();
+    metrics.count(MISSES, 1);
+    UnderTestAnalyzer analyzer = new UnderTestAnalyzer(underTestClass.getProject());
+    UnderTestAnalysis analysis = analyzer.analyse(underTestClass);
+    write(entry, analysis, getFileDependencies(analyzer.getDependencies(), file),
+            getClassNameDependencies(analyzer.getUnresolvedClassNames(), underTestClass.getProject()));
+    return analysis;
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /**
+   * Removes all the cached analyses.
+   */
+  public void clear() {
+    synchronized (evictionLock) {
+      for (Path entry : listEntries()) {
+        delete(entry);
+      }
+      sizeBytes.set(0);
+    }
+  }
+
+  private UnderTestAnalysis read(Path entry, Project project) {
+    byte[] bytes;
+    try {
+      bytes = Files.readAllBytes(entry);
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException e) {
+      LOG.debug("Could not read the cached analysis " + entry, e);
+      return null;
+    }
+
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      if (DataInputOutputUtil.readINT(in) != ENTRY_VERSION || DataInputOutputUtil.readINT(in) != UnderTestAnalysisExternalizer.VERSION) {
+        return null;
+      }
+
+      int fileCount = DataInputOutputUtil.readINT(in);
+      for (int i = 0; i < fileCount; i++) {
+        if (!FileDependency.read(in).isUpToDate()) {
+          return null;
+        }
+      }
+
+      int classNameCount = DataInputOutputUtil.readINT(in);
+      for (int i = 0; i < classNameCount; i++) {
+        String shortName = IOUtil.readUTF(in);
+        String qualifiedNames = IOUtil.readUTF(in);
+        if (!qualifiedNames.equals(getQualifiedNames(shortName, project))) {
+          return null;
+        }
+      }
+
+      UnderTestAnalysis analysis = UnderTestAnalysisExternalizer.INSTANCE.read(in);
+      touch(entry);
+      return analysis;
+    } catch (IOException e) {
+      LOG.debug("Removing the corrupted cached analysis " + entry, e);
+      delete(entry);
+      return null;
+    }
+  }
+
+  private void write(Path entry, UnderTestAnalysis analysis, List<FileDependency> fileDependencies,
+                     Map<String, String> classNameDependencies) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      DataInputOutputUtil.writeINT(out, ENTRY_VERSION);
+      DataInputOutputUtil.writeINT(out, UnderTestAnalysisExternalizer.VERSION);
+      DataInputOutputUtil.writeINT(out, fileDependencies.size());
+      for (FileDependency dependency : fileDependencies) {
+        dependency.write(out);
+      }
+      DataInputOutputUtil.writeINT(out, classNameDependencies.size());
+      for (Map.Entry<String, String> dependency : classNameDependencies.entrySet()) {
+        IOUtil.writeUTF(out, dependency.getKey());
+        IOUtil.writeUTF(out, dependency.getValue());
+      }
+      UnderTestAnalysisExternalizer.INSTANCE.save(out, analysis);
+    } catch (IOException e) {
+      LOG.debug("Could not serialize the analysis " + entry, e);
+      return;
+    }
+
+    try {
+      Files.createDirectories(directory);
+      long size = getSize();
+      long previousSize = Files.exists(entry) ? Files.size(entry) : 0;
+      Path temporary = Files.createTempFile(directory, "entry", ".tmp");
+      Files.write(temporary, bytes.toByteArray());
+      try {
+        Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING);
+      }
+      if (size + bytes.size() - previousSize > maxSizeBytes) {
+        evict();
+      } else {
+        sizeBytes.addAndGet(bytes.size() - previousSize);
+      }
+    } catch (IOException e) {
+      LOG.debug("Could not cache the analysis " + entry, e);
+    }
+  }
+
+  /**
+   * Removes the least recently used entries until the cache is back to three quarters of its maximum size.
+   */
+  private void evict() {
+    synchronized (evictionLock) {
+      List<EntryInfo> entries = new ArrayList<>();
+      long size = 0;
+      for (Path entry : listEntries()) {
+        try {
+          long entrySize = Files.size(entry);
+          entries.add(new EntryInfo(entry, entrySize, Files.getLastModifiedTime(entry)));
+          size += entrySize;
+        } catch (IOException e) {
+          // The entry was removed concurrently
+        }
+      }
+
+      entries.sort(Comparator.comparing((EntryInfo entry) -> entry.lastUsed));
+      long targetSize = maxSizeBytes / 4 * 3;
+      for (EntryInfo entry : entries) {
+        if (size <= targetSize) {
+          break;
+        }
+        delete(entry.path);
+        size -= entry.size;
+      }
+      sizeBytes.set(size);
+    }
+  }
+
+  private long getSize() {
+    long size = sizeBytes.get();
+    if (size >= 0) {
+      return size;
+    }
+
+    synchronized (evictionLock) {
+      size = 0;
+      for (Path entry : listEntries()) {
+        try {
+          size += Files.size(entry);
+        } catch (IOException e) {
+          // The entry was removed concurrently
+        }
+      }
+      sizeBytes.set(size);
+      return size;
+    }
+  }
+
+  private List<Path> listEntries() {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.getFileName().toString().endsWith(ENTRY_EXTENSION)).toList();
+    } catch (IOException e) {
+      LOG.debug("Could not list the cached analyses", e);
+      return List.of();
+    }
+  }
+
+  private String getKey(String qualifiedName, String contentHash, String supportedValueTypes) {
+    String key = pluginVersion + "\n" + UnderTestAnalysisExternalizer.VERSION + "\n" + qualifiedName + "\n" + contentHash
+            + "\n" + supportedValueTypes;
+    return StringUtil.toHexString(DigestUtil.sha1().digest(key.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static List<FileDependency> getFileDependencies(Set<VirtualFile> dependencies, VirtualFile underTestFile) {
+    List<FileDependency> fileDependencies = new ArrayList<>();
+    for (VirtualFile dependency : dependencies) {
+      if (!dependency.equals(underTestFile)) {
+        fileDependencies.add(FileDependency.of(dependency));
+      }
+    }
+    return fileDependencies;
+  }
+
+  /**
+   * @return the qualified names of the classes found for each short name, keyed by short name.
+   */
+  private static Map<String, String> getClassNameDependencies(Set<String> shortNames, Project project) {
+    Map<String, String> qualifiedNames = new LinkedHashMap<>();
+    for (String shortName : shortNames) {
+      qualifiedNames.put(shortName, getQualifiedNames(shortName, project));
+    }
+    return qualifiedNames;
+  }
+
+  private static String getQualifiedNames(String shortName, Project project) {
+    return Arrays.stream(PsiShortNamesCache.getInstance(project).getClassesByName(shortName, GlobalSearchScope.allScope(project)))
+            .map(PsiClass::getQualifiedName)
+            .filter(Objects::nonNull)
+            .sorted()
+            .collect(Collectors.joining(","));
+  }
+
+  /**
+   * @return the hash of the content of a file, including the changes not yet saved to the disk.
+   */
+  private static String hash(VirtualFile file) {
+    byte[] content;
+    try {
+      if (file.getFileType().isBinary()) {
+        content = file.contentsToByteArray();
+      } else {
+        Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+        CharSequence text = document != null ? document.getImmutableCharSequence() : LoadTextUtil.loadText(file);
+        content = text.toString().getBytes(StandardCharsets.UTF_8);
+      }
+    } catch (IOException e) {
+      // A file that can not be read never matches, so that the analysis is made again
+      return "";
+    }
+    return StringUtil.toHexString(DigestUtil.sha1().digest(content));
+  }
+
+  private static void touch(Path entry) {
+    try {
+      Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (IOException e) {
+      // Only affects the order of the eviction
+    }
+  }
+
+  private static void delete(Path entry) {
+    try {
+      Files.deleteIfExists(entry);
+    } catch (IOException e) {
+      LOG.debug("Could not delete the cached analysis " + entry, e);
+    }
+  }
+
+  private static String getPluginVersion() {
+    IdeaPluginDescriptor plugin = PluginManagerCore.getPlugin(PluginId.getId(MockitoPluginUtils.PLUGIN_ID));
+    return plugin == null ? "" : plugin.getVersion();
+  }
+
+  /**
+   * A file read by an analysis. Its content is only hashed again once its time stamp or its length changed, or while
+   * it has unsaved changes.
+   */
+  private static final class FileDependency {
+    private final String url;
+    private final long timeStamp;
+    private final long length;
+    private final String hash;
+
+    private FileDependency(String url, long timeStamp, long length, String hash) {
+      this.url = url;
+      this.timeStamp = timeStamp;
+      this.length = length;
+      this.hash = hash;
+    }
+
+    private static FileDependency of(VirtualFile file) {
+      long timeStamp = FileDocumentManager.getInstance().isFileModified(file) ? UNSAVED_TIME_STAMP : file.getTimeStamp();
+      return new FileDependency(file.getUrl(), timeStamp, file.getLength(), hash(file));
+    }
+
+    private static FileDependency read(DataInputStream in) throws IOException {
+      return new FileDependency(IOUtil.readUTF(in), in.readLong(), in.readLong(), IOUtil.readUTF(in));
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+      IOUtil.writeUTF(out, url);
+      out.writeLong(timeStamp);
+      out.writeLong(length);
+      IOUtil.writeUTF(out, hash);
+    }
+
+    private boolean isUpToDate() {
+      VirtualFile file = VirtualFileManager.getInstance().findFileByUrl(url);
+      if (file == null) {
+        return false;
+      }
+      boolean unchanged = timeStamp != UNSAVED_TIME_STAMP
+              && timeStamp == file.getTimeStamp()
+              && length == file.getLength()
+              && !FileDocumentManager.getInstance().isFileModified(file);
+      return unchanged || hash.equals(hash(file));
+    }
+  }
+
+  private static final class EntryInfo {
+    private final Path path;
+    private final long size;
+    private final FileTime lastUsed;
+
+    private EntryInfo(Path path, long size, FileTime lastUsed) {
+      this.path = path;
+      this.size = size;
+      this.lastUsed = lastUsed;
+    }
+  }
+}
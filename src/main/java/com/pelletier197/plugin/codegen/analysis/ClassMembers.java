@@ -0,0 +1,115 @@
+package com.pelletier197.plugin.codegen.analysis;
+
+import com.intellij.lang.java.JavaLanguage;
+import com.intellij.openapi.util.RecursionManager;
+import com.intellij.psi.CommonClassNames;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Members of a class read by the analysis: its non-static fields, including the inherited ones, its visible methods
+ * and the constructor Mockito injects the mocks through, if any. The members are cached on each class until the Java
+ * structure of the project changes, and the members of a class reuse the ones of its super class, so that a base
+ * class shared by many classes under test is only walked once.
+ */
+final class ClassMembers {
+  private static final ClassMembers EMPTY = new ClassMembers(List.of(), List.of(), null);
+
+  private final List<PsiField> fields;
+  private final List<PsiMethod> methods;
+  private final PsiMethod injectionConstructor;
+
+  private ClassMembers(List<PsiField> fields, List<PsiMethod> methods, PsiMethod injectionConstructor) {
+    this.fields = fields;
+    this.methods = methods;
+    this.injectionConstructor = injectionConstructor;
+  }
+
+  /**
+   * Must be called from a read action.
+   */
+  static ClassMembers of(PsiClass psiClass) {
+    return CachedValuesManager.getCachedValue(psiClass, () -> CachedValueProvider.Result.create(
+            compute(psiClass),
+            PsiModificationTracker.getInstance(psiClass.getProject()).forLanguage(JavaLanguage.INSTANCE)
+    ));
+  }
+
+  /**
+   * @return the non-static fields of the class followed by the ones of its super classes, in the order of
+   * {@link PsiClass#getAllFields()}.
+   */
+  List<PsiField> getFields() {
+    return fields;
+  }
+
+  /**
+   * @return the methods declared by the class that are visible from its test, except for the constructors and the
+   * generated methods that are not worth testing.
+   */
+  List<PsiMethod> getMethods() {
+    return methods;
+  }
+
+  /**
+   * @return the constructor with the most parameters, which <code>@InjectMocks</code> calls with the mocks matching
+   * its parameters, or null if the class has no constructor with parameters. In that case, Mockito creates the
+   * instance with its default constructor, and injects the mocks through the setters or the non-final fields.
+   */
+  PsiMethod getInjectionConstructor() {
+    return injectionConstructor;
+  }
+
+  private static ClassMembers compute(PsiClass psiClass) {
+    List<PsiField> fields = new ArrayList<>();
+    for (PsiField field : psiClass.getFields()) {
+      if (!field.hasModifierProperty(PsiModifier.STATIC)) {
+        fields.add(field);
+      }
+    }
+
+    PsiClass superClass = psiClass.getSuperClass();
+    if (superClass != null && !CommonClassNames.JAVA_LANG_OBJECT.equals(superClass.getQualifiedName())) {
+      // Cyclic hierarchies can be found in code being edited, in which case the cycle is cut
+      ClassMembers superMembers = RecursionManager.doPreventingRecursion(psiClass, true, () -> of(superClass));
+      fields.addAll((superMembers == null ? EMPTY : superMembers).fields);
+    }
+
+    List<PsiMethod> methods = Stream.of(psiClass.getMethods())
+            .filter(method -> isVisible(method) && !method.isConstructor() && isHandledGeneratedMethod(method))
+            .toList();
+
+    return new ClassMembers(List.copyOf(fields), methods, findInjectionConstructor(psiClass));
+  }
+
+  private static PsiMethod findInjectionConstructor(PsiClass psiClass) {
+    PsiMethod biggestConstructor = null;
+    for (PsiMethod constructor : psiClass.getConstructors()) {
+      int parameterCount = constructor.getParameterList().getParametersCount();
+      if (parameterCount > 0 && (biggestConstructor == null || parameterCount > biggestConstructor.getParameterList().getParametersCount())) {
+        biggestConstructor = constructor;
+      }
+    }
+    return biggestConstructor;
+  }
+
+  private static boolean isHandledGeneratedMethod(PsiMethod method) {
+    return Stream.of(UnderTestAnalyzer.NON_HANDLED_METHOD_PREFIX).noneMatch(prefix -> method.getName().startsWith(prefix))
+            && !method.getClass().getName().contains("Lombok");
+  }
+
+  private static boolean isVisible(PsiMethod method) {
+    return method.hasModifierProperty(PsiModifier.PUBLIC)
+            || method.hasModifierProperty(PsiModifier.PROTECTED)
+            || method.hasModifierProperty(PsiModifier.PACKAGE_LOCAL);
+  }
+}
@@ -0,0 +1,101 @@
+package com.pelletier197.plugin.codegen.analysis;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiModifierList;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiVariable;
+import com.pelletier197.plugin.codegen.FieldsCodeInjector;
+import com.pelletier197.plugin.codegen.RunnerCodeInjector;
+import com.pelletier197.plugin.codegen.naming.NamingEngine;
+import com.pelletier197.plugin.codegen.utils.TypeClassificationCache;
+import com.pelletier197.plugin.codegen.utils.TypeClassificationCache.TypeKind;
+import com.pelletier197.plugin.settings.MockitoGenSettings;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cheap check of whether a generation would add something to a test class, used to enable the actions while the menus
+ * are shown. Unlike a {@link UnderTestAnalyzer} pass, it only reads the cached {@link ClassMembers} and type
+ * classifications on the calling thread, and suggests no name. The fields generated for the elements of collections
+ * are therefore not checked, their names being only known once the analysis suggested them.
+ * <p>
+ * Must be called from a read action.
+ */
+public final class MissingCodeCheck {
+
+  private MissingCodeCheck() {
+  }
+
+  /**
+   * @return true if the runner annotation, the field of the class under test, a nested class of a tested method or a
+   * field generated for a dependency or a parameter is missing from the test class.
+   */
+  public static boolean hasMissingCode(PsiClass testClass, PsiClass underTestClass) {
+    PsiModifierList modifierList = testClass.getModifierList();
+    if (modifierList != null && !RunnerCodeInjector.containsRunnerAnnotation(modifierList)) {
+      return true;
+    }
+    if (testClass.findFieldByName(FieldsCodeInjector.UNDER_TEST_FIELD_NAME, false) == null) {
+      return true;
+    }
+
+    TypeClassificationCache typeClassificationCache = TypeClassificationCache.getInstance(testClass.getProject());
+    ClassMembers members = ClassMembers.of(underTestClass);
+    for (PsiVariable variable : getMockedVariables(members, MockitoGenSettings.getInstance(testClass.getProject()).isInjectedMocksOnly())) {
+      if (isMissing(testClass, variable, typeClassificationCache)) {
+        return true;
+      }
+    }
+
+    for (PsiMethod method : members.getMethods()) {
+      PsiClass nestedClass = testClass.findInnerClassByName(NamingEngine.whenClassName(method.getName()), false);
+      if (nestedClass == null) {
+        return true;
+      }
+      for (PsiParameter parameter : method.getParameterList().getParameters()) {
+        if (isMissing(nestedClass, parameter, typeClassificationCache)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the variables mocked in the test class, following the same rules as the analysis.
+   */
+  private static List<PsiVariable> getMockedVariables(ClassMembers members, boolean injectedMocksOnly) {
+    if (!injectedMocksOnly) {
+      return List.copyOf(members.getFields());
+    }
+
+    PsiMethod injectionConstructor = members.getInjectionConstructor();
+    if (injectionConstructor != null) {
+      return List.of(injectionConstructor.getParameterList().getParameters());
+    }
+    List<PsiVariable> injectedFields = new ArrayList<>();
+    for (PsiField field : members.getFields()) {
+      if (!field.hasModifierProperty(PsiModifier.FINAL)) {
+        injectedFields.add(field);
+      }
+    }
+    return injectedFields;
+  }
+
+  private static boolean isMissing(PsiClass testClass, PsiVariable variable, TypeClassificationCache typeClassificationCache) {
+    TypeKind kind = typeClassificationCache.classify(variable.getType());
+    String fieldName;
+    if (kind.isPrimitiveOrSupportedFinalClass()) {
+      fieldName = NamingEngine.constantName(variable.getName());
+    } else if (kind == TypeKind.MOCKABLE) {
+      fieldName = NamingEngine.fieldName(variable.getName());
+    } else {
+      return false;
+    }
+    return testClass.findFieldByName(fieldName, false) == null;
+  }
+}
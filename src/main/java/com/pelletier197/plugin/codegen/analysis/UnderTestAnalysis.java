@@ -0,0 +1,43 @@
+package com.pelletier197.plugin.codegen.analysis;
+
+import java.util.List;
+
+/**
+ * What the injectors need to know about a class under test: its non-static fields, including the ones inherited from
+ * its super classes, the dependencies Mockito injects into it, and the methods to test with their parameters. The
+ * analysis holds no PSI element, so that it can be reused across read actions and persisted by the
+ * {@link AnalysisCache}.
+ */
+public final class UnderTestAnalysis {
+  public static final UnderTestAnalysis EMPTY = new UnderTestAnalysis(List.of(), List.of(), List.of());
+
+  private final List<AnalysedVariable> fields;
+  private final List<AnalysedVariable> injectedDependencies;
+  private final List<AnalysedMethod> methods;
+
+  UnderTestAnalysis(List<AnalysedVariable> fields, List<AnalysedVariable> injectedDependencies, List<AnalysedMethod> methods) {
+    this.fields = List.copyOf(fields);
+    this.injectedDependencies = List.copyOf(injectedDependencies);
+    this.methods = List.copyOf(methods);
+  }
+
+  public List<AnalysedVariable> getFields() {
+    return fields;
+  }
+
+  /**
+   * @return the injection points <code>@InjectMocks</code> uses, following the rules of Mockito: the parameters of the
+   * constructor with the most parameters if there is one, and otherwise the non-final fields, which are injected
+   * through their setter or directly.
+   */
+  public List<AnalysedVariable> getInjectedDependencies() {
+    return injectedDependencies;
+  }
+
+  /**
+   * @return the methods to test, in their declaration order.
+   */
+  public List<AnalysedMethod> getMethods() {
+    return methods;
+  }
+}
@@ -0,0 +1,109 @@
+package com.pelletier197.plugin.codegen.analysis;
+
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import com.pelletier197.plugin.codegen.utils.TypeClassificationCache.TypeKind;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes an {@link UnderTestAnalysis} in a compact binary form. The {@link #VERSION} must be increased whenever the
+ * format or the content of the analysis changes, so that the entries written by a previous version are ignored.
+ */
+final class UnderTestAnalysisExternalizer implements DataExternalizer<UnderTestAnalysis> {
+  static final int VERSION = 4;
+  static final UnderTestAnalysisExternalizer INSTANCE = new UnderTestAnalysisExternalizer();
+
+  private static final TypeKind[] KINDS = TypeKind.values();
+
+  private UnderTestAnalysisExternalizer() {
+  }
+
+  @Override
+  public void save(@NotNull DataOutput out, UnderTestAnalysis analysis) throws IOException {
+    saveVariables(out, analysis.getFields());
+    saveVariables(out, analysis.getInjectedDependencies());
+    DataInputOutputUtil.writeINT(out, analysis.getMethods().size());
+    for (AnalysedMethod method : analysis.getMethods()) {
+      IOUtil.writeUTF(out, method.getName());
+      saveVariables(out, method.getParameters());
+    }
+  }
+
+  @Override
+  public UnderTestAnalysis read(@NotNull DataInput in) throws IOException {
+    List<AnalysedVariable> fields = readVariables(in);
+    List<AnalysedVariable> injectedDependencies = readVariables(in);
+    int methodCount = DataInputOutputUtil.readINT(in);
+    List<AnalysedMethod> methods = new ArrayList<>(methodCount);
+    for (int i = 0; i < methodCount; i++) {
+      methods.add(new AnalysedMethod(IOUtil.readUTF(in), readVariables(in)));
+    }
+    return new UnderTestAnalysis(fields, injectedDependencies, methods);
+  }
+
+  private static void saveVariables(DataOutput out, List<AnalysedVariable> variables) throws IOException {
+    DataInputOutputUtil.writeINT(out, variables.size());
+    for (AnalysedVariable variable : variables) {
+      IOUtil.writeUTF(out, variable.getName());
+      saveType(out, variable.getType());
+      out.writeBoolean(variable.getElementType() != null);
+      if (variable.getElementType() != null) {
+        saveType(out, variable.getElementType());
+      }
+    }
+  }
+
+  private static List<AnalysedVariable> readVariables(DataInput in) throws IOException {
+    int count = DataInputOutputUtil.readINT(in);
+    List<AnalysedVariable> variables = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      String name = IOUtil.readUTF(in);
+      AnalysedType type = readType(in);
+      AnalysedType elementType = in.readBoolean() ? readType(in) : null;
+      variables.add(new AnalysedVariable(name, type, elementType));
+    }
+    return variables;
+  }
+
+  private static void saveType(DataOutput out, AnalysedType type) throws IOException {
+    DataInputOutputUtil.writeINT(out, type.getKind().ordinal());
+    IOUtil.writeUTF(out, type.getPresentableText());
+    IOUtil.writeUTF(out, type.getCanonicalText());
+    saveNullable(out, type.getEnumQualifiedName());
+    saveNullable(out, type.getEnumFirstConstant());
+    saveNullable(out, type.getSuggestedConstantName());
+    saveNullable(out, type.getSuggestedFieldName());
+    out.writeBoolean(type.getRecordComponents() != null);
+    if (type.getRecordComponents() != null) {
+      saveVariables(out, type.getRecordComponents());
+    }
+  }
+
+  private static AnalysedType readType(DataInput in) throws IOException {
+    int kind = DataInputOutputUtil.readINT(in);
+    if (kind < 0 || kind >= KINDS.length) {
+      throw new IOException("Unknown type kind " + kind);
+    }
+    return new AnalysedType(KINDS[kind], IOUtil.readUTF(in), IOUtil.readUTF(in),
+            readNullable(in), readNullable(in), readNullable(in), readNullable(in),
+            in.readBoolean() ? readVariables(in) : null);
+  }
+
+  private static void saveNullable(DataOutput out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      IOUtil.writeUTF(out, value);
+    }
+  }
+
+  private static String readNullable(DataInput in) throws IOException {
+    return in.readBoolean() ? IOUtil.readUTF(in) : null;
+  }
+}
@@ -0,0 +1,257 @@
+package com.pelletier197.plugin.codegen.analysis;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicatorProvider;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.CommonClassNames;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiRecordComponent;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiVariable;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.codeStyle.VariableKind;
+import com.intellij.psi.util.PsiUtil;
+import com.pelletier197.plugin.codegen.utils.TypeClassificationCache;
+import com.pelletier197.plugin.codegen.utils.TypeClassificationCache.TypeKind;
+import com.pelletier197.plugin.codegen.value.ValueProviderRegistry;
+import com.pelletier197.plugin.metrics.GenerationMetrics;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Analyses a class under test into an {@link UnderTestAnalysis}. The analyzer reads the PSI, and must be used from a
+ * read action.
+ * <p>
+ * The methods of classes with many methods, such as facades, are analysed concurrently. Each worker runs in its own
+ * read action that gives way to write actions, in which case the whole analysis is cancelled to be restarted by the
+ * calling non-blocking read action. The analysed methods are kept in their declaration order.
+ * <p>
+ * The files of the classes the analysis depends on, such as the super classes and the classes of the types of the
+ * variables, are recorded so that a cached analysis can be invalidated when one of them changes. The names of the
+ * types that could not be resolved are recorded as well, so that it is invalidated once one of them is created.
+ */
+public final class UnderTestAnalyzer {
+  public static final String[] NON_HANDLED_METHOD_PREFIX = new String[]{"set", "toString", "equals", "canEqual", "hashCode"};
+
+  private static final String HIERARCHY_MEMBERS_PHASE = "UnderTestAnalyzer.hierarchyMembers";
+  private static final String CLASSIFY_PHASE = "UnderTestAnalyzer.classify";
+  private static final String SUGGEST_NAME_PHASE = "UnderTestAnalyzer.suggestName";
+  private static final int PARALLEL_METHOD_THRESHOLD = 32;
+
+  private final TypeClassificationCache typeClassificationCache;
+  private final ValueProviderRegistry valueProviderRegistry;
+  private final JavaCodeStyleManager codeStyleManager;
+  private final GenerationMetrics metrics = GenerationMetrics.getInstance();
+  private final Set<VirtualFile> dependencies = ConcurrentHashMap.newKeySet();
+  private final Set<String> unresolvedClassNames = ConcurrentHashMap.newKeySet();
+
+  public UnderTestAnalyzer(Project project) {
+    this.typeClassificationCache = TypeClassificationCache.getInstance(project);
+    this.valueProviderRegistry = ValueProviderRegistry.getInstance(project);
+    this.codeStyleManager = JavaCodeStyleManager.getInstance(project);
+  }
+
+  public UnderTestAnalysis analyse(PsiClass underTestClass) {
+    addHierarchyDependencies(underTestClass);
+
+    ClassMembers members;
+    try (GenerationMetrics.Span ignored = metrics.startSpan(HIERARCHY_MEMBERS_PHASE)) {
+      members = ClassMembers.of(underTestClass);
+    }
+
+    List<AnalysedVariable> fields = new ArrayList<>();
+    List<AnalysedVariable> injectedDependencies = new ArrayList<>();
+    PsiMethod injectionConstructor = members.getInjectionConstructor();
+    for (PsiField field : members.getFields()) {
+      addDependency(field.getContainingClass());
+      AnalysedVariable analysedField = analyseVariable(field);
+      fields.add(analysedField);
+      if (injectionConstructor == null && !field.hasModifierProperty(PsiModifier.FINAL)) {
+        injectedDependencies.add(analysedField);
+      }
+    }
+
+    if (injectionConstructor != null) {
+      for (PsiParameter parameter : injectionConstructor.getParameterList().getParameters()) {
+        injectedDependencies.add(analyseVariable(parameter));
+      }
+    }
+
+    return new UnderTestAnalysis(fields, injectedDependencies, analyseMethods(members.getMethods()));
+  }
+
+  /**
+   * @return the files read by the analyses made so far.
+   */
+  public Set<VirtualFile> getDependencies() {
+    return dependencies;
+  }
+
+  /**
+   * @return the short names of the classes referenced by the analyses made so far that could not be resolved.
+   */
+  public Set<String> getUnresolvedClassNames() {
+    return unresolvedClassNames;
+  }
+
+  private List<AnalysedMethod> analyseMethods(List<PsiMethod> methods) {
+    // Workers can not get a read action while the calling thread holds the write lock, the methods are then analysed
+    // on the calling thread.
+    if (methods.size() < PARALLEL_METHOD_THRESHOLD || ApplicationManager.getApplication().isWriteAccessAllowed()) {
+      return methods.stream().map(this::analyseMethod).toList();
+    }
+
+    AnalysedMethod[] analysedMethods = new AnalysedMethod[methods.size()];
+    // The workers record their metrics only if the calling thread does
+    boolean recording = metrics.isRecording();
+    boolean completed = JobLauncher.getInstance().invokeConcurrentlyUnderProgress(
+            IntStream.range(0, methods.size()).boxed().toList(),
+            ProgressIndicatorProvider.getGlobalProgressIndicator(),
+            index -> {
+              analyseInReadAction(recording
+                      ? () -> analysedMethods[index] = analyseMethod(methods.get(index))
+                      : () -> metrics.computeWithoutRecording(() -> analysedMethods[index] = analyseMethod(methods.get(index))));
+              return true;
+            });
+    if (!completed) {
+      throw new ProcessCanceledException();
+    }
+    return List.of(analysedMethods);
+  }
+
+  private static void analyseInReadAction(Runnable analysis) {
+    if (ApplicationManager.getApplication().isReadAccessAllowed()) {
+      analysis.run();
+    } else if (!ProgressIndicatorUtils.runInReadActionWithWriteActionPriority(analysis)) {
+      throw new ProcessCanceledException();
+    }
+  }
+
+  private AnalysedMethod analyseMethod(PsiMethod method) {
+    List<AnalysedVariable> parameters = new ArrayList<>();
+    for (PsiParameter parameter : method.getParameterList().getParameters()) {
+      parameters.add(analyseVariable(parameter));
+    }
+    return new AnalysedMethod(method.getName(), parameters);
+  }
+
+  private AnalysedVariable analyseVariable(PsiVariable variable) {
+    PsiType psiType = variable.getType();
+    AnalysedType type = analyseType(psiType, false, true);
+    AnalysedType elementType = null;
+
+    if (type.getKind() == TypeKind.COLLECTION) {
+      PsiType psiElementType = PsiUtil.extractIterableTypeParameter(psiType, false);
+      if (psiElementType != null) {
+        elementType = analyseType(psiElementType, true, true);
+      }
+    }
+
+    return new AnalysedVariable(variable.getName(), type, elementType);
+  }
+
+  private AnalysedType analyseType(PsiType type, boolean suggestNames, boolean analyseRecordComponents) {
+    TypeKind kind = classify(type);
+    PsiClass typeClass = PsiUtil.resolveClassInClassTypeOnly(type);
+    addDependency(typeClass);
+    addUnresolvedDependency(type, typeClass);
+
+    String enumQualifiedName = null;
+    String enumFirstConstant = null;
+    if (kind == TypeKind.ENUM && typeClass != null && typeClass.getQualifiedName() != null) {
+      enumQualifiedName = typeClass.getQualifiedName();
+      enumFirstConstant = valueProviderRegistry.getEnumFirstConstant(typeClass);
+    }
+
+    List<AnalysedVariable> recordComponents = null;
+    if (kind == TypeKind.RECORD && analyseRecordComponents && typeClass != null) {
+      recordComponents = new ArrayList<>();
+      for (PsiRecordComponent component : typeClass.getRecordComponents()) {
+        recordComponents.add(new AnalysedVariable(component.getName(), analyseType(component.getType(), false, false), null));
+      }
+    }
+
+    String suggestedConstantName = null;
+    String suggestedFieldName = null;
+    if (suggestNames && kind.isPrimitiveOrSupportedFinalClass()) {
+      suggestedConstantName = suggestConstantName(type);
+    } else if (suggestNames && (kind == TypeKind.COLLECTION || kind == TypeKind.MOCKABLE)) {
+      suggestedFieldName = suggestFieldName(type);
+    }
+
+    return new AnalysedType(kind, type.getPresentableText(false), type.getCanonicalText(),
+            enumQualifiedName, enumFirstConstant, suggestedConstantName, suggestedFieldName, recordComponents);
+  }
+
+  private String suggestConstantName(PsiType psiType) {
+    if (psiType.getPresentableText(false).equals("UUID")) {
+      return "UUID_VALUE";
+    }
+    try (GenerationMetrics.Span ignored = metrics.startSpan(SUGGEST_NAME_PHASE)) {
+      return codeStyleManager.suggestVariableName(VariableKind.STATIC_FINAL_FIELD, null, null, psiType).names[0];
+    }
+  }
+
+  private String suggestFieldName(PsiType type) {
+    try (GenerationMetrics.Span ignored = metrics.startSpan(SUGGEST_NAME_PHASE)) {
+      return codeStyleManager.suggestVariableName(VariableKind.FIELD, null, null, type).names[0];
+    }
+  }
+
+  private TypeKind classify(PsiType type) {
+    try (GenerationMetrics.Span ignored = metrics.startSpan(CLASSIFY_PHASE)) {
+      return typeClassificationCache.classify(type);
+    }
+  }
+
+  private void addDependency(PsiElement element) {
+    if (element == null) {
+      return;
+    }
+
+    PsiFile file = element.getContainingFile();
+    VirtualFile virtualFile = file == null ? null : file.getVirtualFile();
+    if (virtualFile != null) {
+      dependencies.add(virtualFile);
+    }
+  }
+
+  /**
+   * Records the class under test and all its super classes, even the ones without fields, since a field added to any of
+   * them is inherited by the class under test.
+   */
+  private void addHierarchyDependencies(PsiClass underTestClass) {
+    Set<PsiClass> visited = new HashSet<>();
+    for (PsiClass psiClass = underTestClass; psiClass != null && visited.add(psiClass); psiClass = psiClass.getSuperClass()) {
+      if (CommonClassNames.JAVA_LANG_OBJECT.equals(psiClass.getQualifiedName())) {
+        return;
+      }
+      addDependency(psiClass);
+      for (PsiClassType superType : psiClass.getExtendsListTypes()) {
+        addUnresolvedDependency(superType, superType.resolve());
+      }
+    }
+  }
+
+  private void addUnresolvedDependency(PsiType type, PsiClass typeClass) {
+    if (typeClass == null && type instanceof PsiClassType classType) {
+      unresolvedClassNames.add(classType.getClassName());
+    }
+  }
+}
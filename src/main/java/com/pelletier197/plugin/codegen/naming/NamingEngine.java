@@ -0,0 +1,145 @@
+package com.pelletier197.plugin.codegen.naming;
+
+/**
+ * Names the members generated in the test classes. The engine does not depend on the PSI, and is called for every
+ * method and field of the class under test, so each name is built in a single array of the right size, without
+ * intermediate strings.
+ */
+public final class NamingEngine {
+  private static final char[] WHEN_PREFIX = "When".toCharArray();
+  private static final char[] CHECKING_IF = "CheckingIf".toCharArray();
+  private static final char[] ING = "ing".toCharArray();
+  private static final String[] CHECKING_VERB_PREFIXES = {"is", "can", "has"};
+  private static final String[] DOUBLED_LAST_LETTER_VERBS = {"get", "commit"};
+
+  private NamingEngine() {
+  }
+
+  /**
+   * Names the nested class testing a method, from the verb the method name starts with. For instance,
+   * <code>getUser</code> gives <code>WhenGettingUser</code> and <code>isValid</code> gives
+   * <code>WhenCheckingIfIsValid</code>.
+   */
+  public static String whenClassName(String methodName) {
+    int verbLength = indexOfFirstUppercase(methodName);
+    int restLength = methodName.length() - verbLength;
+    if (verbLength == 0) {
+      char[] name = new char[WHEN_PREFIX.length + restLength];
+      int position = append(name, 0, WHEN_PREFIX);
+      methodName.getChars(0, methodName.length(), name, position);
+      return new String(name);
+    }
+
+    boolean checking = startsWithAny(methodName, verbLength, CHECKING_VERB_PREFIXES);
+    int copiedVerbLength = verbLength;
+    boolean doubledLastLetter = false;
+    if (!checking && verbLength > 1) {
+      char beforeLast = methodName.charAt(verbLength - 2);
+      char last = methodName.charAt(verbLength - 1);
+      boolean keepsFinalE = beforeLast == 'e' || beforeLast == 'y' || beforeLast == 'o';
+      if (last == 'e' && !keepsFinalE) {
+        copiedVerbLength--;
+      } else if (last != 'e') {
+        doubledLastLetter = equalsAnyIgnoreCase(methodName, verbLength, DOUBLED_LAST_LETTER_VERBS);
+      }
+    }
+
+    int length = WHEN_PREFIX.length
+            + (checking ? CHECKING_IF.length : 0)
+            + copiedVerbLength
+            + (doubledLastLetter ? 1 : 0)
+            + (checking ? 0 : ING.length)
+            + restLength;
+    char[] name = new char[length];
+    int position = append(name, 0, WHEN_PREFIX);
+    if (checking) {
+      position = append(name, position, CHECKING_IF);
+    }
+    name[position++] = Character.toUpperCase(methodName.charAt(0));
+    methodName.getChars(1, copiedVerbLength, name, position);
+    position += copiedVerbLength - 1;
+    if (doubledLastLetter) {
+      name[position++] = methodName.charAt(verbLength - 1);
+    }
+    if (!checking) {
+      position = append(name, position, ING);
+    }
+    methodName.getChars(verbLength, methodName.length(), name, position);
+    return new String(name);
+  }
+
+  /**
+   * Names the constant holding the value of a variable, for instance <code>userName</code> gives
+   * <code>USER_NAME</code>.
+   */
+  public static String constantName(String variableName) {
+    int length = variableName.length();
+    for (int i = 1; i < variableName.length(); i++) {
+      if (Character.isUpperCase(variableName.charAt(i))) {
+        length++;
+      }
+    }
+
+    char[] name = new char[length];
+    name[0] = Character.toUpperCase(variableName.charAt(0));
+    int position = 1;
+    for (int i = 1; i < variableName.length(); i++) {
+      char current = variableName.charAt(i);
+      if (Character.isUpperCase(current)) {
+        name[position++] = '_';
+        name[position++] = current;
+      } else {
+        name[position++] = Character.toUpperCase(current);
+      }
+    }
+    return new String(name);
+  }
+
+  /**
+   * Names a field from a suggested name by lower casing its first letter. The suggested name is returned as is when it
+   * already starts with a lower case letter.
+   */
+  public static String fieldName(String suggestedName) {
+    char first = suggestedName.charAt(0);
+    char lowerCaseFirst = Character.toLowerCase(first);
+    if (first == lowerCaseFirst) {
+      return suggestedName;
+    }
+
+    char[] name = suggestedName.toCharArray();
+    name[0] = lowerCaseFirst;
+    return new String(name);
+  }
+
+  private static int indexOfFirstUppercase(String string) {
+    for (int i = 0; i < string.length(); i++) {
+      if (Character.isUpperCase(string.charAt(i))) {
+        return i;
+      }
+    }
+    return string.length();
+  }
+
+  private static boolean startsWithAny(String string, int length, String[] prefixes) {
+    for (String prefix : prefixes) {
+      if (prefix.length() <= length && string.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean equalsAnyIgnoreCase(String string, int length, String[] candidates) {
+    for (String candidate : candidates) {
+      if (candidate.length() == length && string.regionMatches(true, 0, candidate, 0, length)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int append(char[] target, int position, char[] source) {
+    System.arraycopy(source, 0, target, position, source.length);
+    return position + source.length;
+  }
+}
@@ -0,0 +1,89 @@
+package com.pelletier197.plugin.codegen.plan;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fields to add to the test class, or to one of its <code>@Nested</code> classes. A nested class plan may either
+ * target an existing inner class, or describe a new one that has to be created.
+ */
+public final class ClassPlan {
+
+  private final String name;
+  private final boolean nested;
+  private final boolean created;
+  private final List<FieldPlan> fields;
+
+  private ClassPlan(String name, boolean nested, boolean created, List<FieldPlan> fields) {
+    this.name = name;
+    this.nested = nested;
+    this.created = created;
+    this.fields = List.copyOf(fields);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public boolean isNested() {
+    return nested;
+  }
+
+  /**
+   * @return true if the class does not exist yet in the test file and has to be created.
+   */
+  public boolean isCreated() {
+    return created;
+  }
+
+  public List<FieldPlan> getFields() {
+    return fields;
+  }
+
+  public boolean isEmpty() {
+    return !created && fields.isEmpty();
+  }
+
+  public static final class Builder {
+    private final String name;
+    private final boolean nested;
+    private final boolean created;
+    private final Set<String> fieldNames;
+    private final List<FieldPlan> fields = new ArrayList<>();
+
+    Builder(String name, boolean nested, boolean created, Collection<String> existingFieldNames) {
+      this.name = name;
+      this.nested = nested;
+      this.created = created;
+      this.fieldNames = new HashSet<>(existingFieldNames);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public boolean isNested() {
+      return nested;
+    }
+
+    /**
+     * @return true if the field already exists in the test class, or is already planned to be added.
+     */
+    public boolean hasField(String fieldName) {
+      return fieldNames.contains(fieldName);
+    }
+
+    public void addField(FieldPlan field) {
+      if (fieldNames.add(field.getName())) {
+        fields.add(field);
+      }
+    }
+
+    ClassPlan build() {
+      return new ClassPlan(name, nested, created, fields);
+    }
+  }
+}
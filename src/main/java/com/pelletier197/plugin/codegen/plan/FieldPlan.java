@@ -0,0 +1,44 @@
+package com.pelletier197.plugin.codegen.plan;
+
+/**
+ * Field that will be declared in a test class once the plan is applied. The field is kept as plain text so
+ * that the plan does not hold any PSI element.
+ */
+public final class FieldPlan {
+
+  private final String name;
+  private final String text;
+
+  private FieldPlan(String name, String text) {
+    this.name = name;
+    this.text = text;
+  }
+
+  /**
+   * Field annotated with the given annotation, for instance:
+   * <code>
+   * @Mock private ClassName className;
+   * </code>
+   */
+  public static FieldPlan annotated(String annotationName, String typeText, String name) {
+    return new FieldPlan(name, "@" + annotationName + " private " + typeText + " " + name + ";");
+  }
+
+  /**
+   * Field initialized with a value, for instance:
+   * <code>
+   * private static final String NAME = "NAME";
+   * </code>
+   */
+  public static FieldPlan constant(boolean isStatic, String typeText, String name, String assignment) {
+    return new FieldPlan(name, "private" + (isStatic ? " static" : "") + " final " + typeText + " " + name + " = " + assignment + ";");
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getText() {
+    return text;
+  }
+}
@@ -0,0 +1,131 @@
+package com.pelletier197.plugin.codegen.plan;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable description of everything that is missing from a test file: annotations of the test class, fields,
+ * nested classes and imports.
+ * <p>
+ * The plan is computed from a read action and holds no PSI element, so it can be built on a background thread and
+ * applied later in a single write action. It remembers the {@link ModificationStamp} of the sources it was computed
+ * from, so that it can be discarded if they changed in between.
+ */
+public final class GenerationPlan {
+
+  private final ModificationStamp modificationStamp;
+  private final List<String> testClassAnnotations;
+  private final ClassPlan testClass;
+  private final List<ClassPlan> nestedClasses;
+  private final List<String> classImports;
+  private final List<StaticImportPlan> staticImports;
+
+  private GenerationPlan(Builder builder) {
+    this.modificationStamp = builder.modificationStamp;
+    this.testClassAnnotations = List.copyOf(builder.testClassAnnotations);
+    this.testClass = builder.testClass.build();
+    this.nestedClasses = builder.nestedClasses.values().stream()
+            .map(ClassPlan.Builder::build)
+            .filter(nestedClass -> !nestedClass.isEmpty())
+            .toList();
+    this.classImports = List.copyOf(builder.classImports);
+    this.staticImports = List.copyOf(builder.staticImports.values());
+  }
+
+  public static Builder builder(ModificationStamp modificationStamp, Collection<String> existingTestClassFieldNames) {
+    return new Builder(modificationStamp, existingTestClassFieldNames);
+  }
+
+  public ModificationStamp getModificationStamp() {
+    return modificationStamp;
+  }
+
+  public List<String> getTestClassAnnotations() {
+    return testClassAnnotations;
+  }
+
+  public ClassPlan getTestClass() {
+    return testClass;
+  }
+
+  public List<ClassPlan> getNestedClasses() {
+    return nestedClasses;
+  }
+
+  public List<String> getClassImports() {
+    return classImports;
+  }
+
+  public List<StaticImportPlan> getStaticImports() {
+    return staticImports;
+  }
+
+  /**
+   * @return true if applying the plan would not change the test file.
+   */
+  public boolean isEmpty() {
+    return testClassAnnotations.isEmpty()
+            && testClass.isEmpty()
+            && nestedClasses.isEmpty()
+            && classImports.isEmpty()
+            && staticImports.isEmpty();
+  }
+
+  public static final class Builder {
+    private final ModificationStamp modificationStamp;
+    private final List<String> testClassAnnotations = new ArrayList<>();
+    private final ClassPlan.Builder testClass;
+    private final Map<String, ClassPlan.Builder> nestedClasses = new LinkedHashMap<>();
+    private final Set<String> classImports = new LinkedHashSet<>();
+    private final Map<String, StaticImportPlan> staticImports = new LinkedHashMap<>();
+
+    private Builder(ModificationStamp modificationStamp, Collection<String> existingTestClassFieldNames) {
+      this.modificationStamp = modificationStamp;
+      this.testClass = new ClassPlan.Builder(null, false, false, existingTestClassFieldNames);
+    }
+
+    public ClassPlan.Builder testClass() {
+      return testClass;
+    }
+
+    /**
+     * Returns the plan of the nested class with the given name, creating it if it is not planned yet.
+     *
+     * @param existingFieldNames names of the fields of the nested class, if it already exists in the test file.
+     *                           Null if the nested class has to be created.
+     */
+    public ClassPlan.Builder nestedClass(String name, Collection<String> existingFieldNames) {
+      return nestedClasses.computeIfAbsent(name, key -> new ClassPlan.Builder(
+              key,
+              true,
+              existingFieldNames == null,
+              Objects.requireNonNullElse(existingFieldNames, List.of())
+      ));
+    }
+
+    public void addTestClassAnnotation(String annotationText) {
+      testClassAnnotations.add(annotationText);
+    }
+
+    /**
+     * Collects an import. Imports are de-duplicated, and only resolved once the plan is applied.
+     */
+    public void addClassImport(String qualifiedClassName) {
+      classImports.add(qualifiedClassName);
+    }
+
+    public void addStaticImport(String className, String memberName) {
+      staticImports.putIfAbsent(className + "." + memberName, new StaticImportPlan(className, memberName));
+    }
+
+    public GenerationPlan build() {
+      return new GenerationPlan(this);
+    }
+  }
+}
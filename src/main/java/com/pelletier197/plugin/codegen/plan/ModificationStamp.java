@@ -0,0 +1,45 @@
+package com.pelletier197.plugin.codegen.plan;
+
+/**
+ * State of the sources a plan was computed from: the modification stamp of the test file, the modification count of
+ * the Java structure of the project, which covers the fields and methods of the class under test and of the classes
+ * it depends on, and the modification count of the settings and value providers. Edits inside the code blocks of
+ * other files do not change the stamp.
+ */
+public final class ModificationStamp {
+
+  private final long testFileStamp;
+  private final long javaStructureCount;
+  private final long settingsCount;
+
+  public ModificationStamp(long testFileStamp, long javaStructureCount, long settingsCount) {
+    this.testFileStamp = testFileStamp;
+    this.javaStructureCount = javaStructureCount;
+    this.settingsCount = settingsCount;
+  }
+
+  /**
+   * @return the stamp expected after the given number of changes of the Java structure, the other sources unchanged.
+   */
+  public ModificationStamp withJavaStructureChanges(long changes) {
+    return new ModificationStamp(testFileStamp, javaStructureCount + changes, settingsCount);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof ModificationStamp stamp
+            && testFileStamp == stamp.testFileStamp
+            && javaStructureCount == stamp.javaStructureCount
+            && settingsCount == stamp.settingsCount;
+  }
+
+  @Override
+  public int hashCode() {
+    return (Long.hashCode(testFileStamp) * 31 + Long.hashCode(javaStructureCount)) * 31 + Long.hashCode(settingsCount);
+  }
+
+  @Override
+  public String toString() {
+    return testFileStamp + ":" + javaStructureCount + ":" + settingsCount;
+  }
+}
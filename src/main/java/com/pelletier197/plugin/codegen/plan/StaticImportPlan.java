@@ -0,0 +1,28 @@
+package com.pelletier197.plugin.codegen.plan;
+
+/**
+ * Static import to add to the test file. A member name of <code>*</code> imports all the members of the class.
+ */
+public final class StaticImportPlan {
+  public static final String ALL_MEMBERS = "*";
+
+  private final String className;
+  private final String memberName;
+
+  public StaticImportPlan(String className, String memberName) {
+    this.className = className;
+    this.memberName = memberName;
+  }
+
+  public String getClassName() {
+    return className;
+  }
+
+  public String getMemberName() {
+    return memberName;
+  }
+
+  public boolean isAllMembers() {
+    return ALL_MEMBERS.equals(memberName);
+  }
+}
@@ -1,24 +1,70 @@
 package com.pelletier197.plugin.codegen.utils;
 
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiJavaFile;
 import com.intellij.psi.util.PsiUtil;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Created by przemek on 8/10/15.
  */
 public class MockitoPluginUtils {
+    /**
+     * Identifier of the plugin in its descriptor, which also prefixes its extension points.
+     */
+    public static final String PLUGIN_ID = "com.sunny.plugin.MockitoGenPlugin";
 
     /**
      * Returns unit test class declared in this file. Assumes that there is only one outer, non-abstract class in the
      * file.
      */
     public static PsiClass getUnitTestClass(PsiJavaFile psiJavaFile) {
+        PsiClass unitTestClass = findUnitTestClass(psiJavaFile);
+        if (unitTestClass == null) {
+            throw new IllegalStateException("Could not find a unit test class in file: " + psiJavaFile.getName());
+        }
+        return unitTestClass;
+    }
+
+    /**
+     * Same as {@link #getUnitTestClass(PsiJavaFile)}, but returns null if the file has no unit test class.
+     */
+    public static PsiClass findUnitTestClass(PsiJavaFile psiJavaFile) {
         for (PsiClass psiClass : psiJavaFile.getClasses()) {
             if (!PsiUtil.isInnerClass(psiClass) && !PsiUtil.isAbstractClass(psiClass)) {
                 return psiClass;
             }
         }
-        throw new IllegalStateException("Could not find a unit test class in file: " + psiJavaFile.getName());
+        return null;
+    }
+
+    /**
+     * Blocks until the project leaves dumb mode. Unlike {@link DumbService#waitForSmartMode()}, the wait stops with a
+     * {@link com.intellij.openapi.progress.ProcessCanceledException} once the current progress is cancelled, and the
+     * listener of the dumb mode is then removed.
+     */
+    public static void awaitSmartMode(Project project) {
+        Disposable listenerDisposable = Disposer.newDisposable();
+        try {
+            CompletableFuture<Void> smartMode = new CompletableFuture<>();
+            project.getMessageBus().connect(listenerDisposable).subscribe(DumbService.DUMB_MODE, new DumbService.DumbModeListener() {
+                @Override
+                public void exitDumbMode() {
+                    smartMode.complete(null);
+                }
+            });
+            if (!DumbService.isDumb(project)) {
+                smartMode.complete(null);
+            }
+            ProgressIndicatorUtils.awaitWithCheckCanceled(smartMode);
+        } finally {
+            Disposer.dispose(listenerDisposable);
+        }
     }
 }
@@ -0,0 +1,173 @@
+package com.pelletier197.plugin.codegen.utils;
+
+import com.intellij.lang.java.JavaLanguage;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.CommonClassNames;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiPrimitiveType;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiUtil;
+import com.intellij.util.containers.ContainerUtil;
+import com.pelletier197.plugin.codegen.value.ValueProvider;
+import com.pelletier197.plugin.codegen.value.ValueProviderRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches how each type is handled by the generated code. Class types are keyed by their resolved class, so that
+ * classes with the same name in different modules or libraries are classified separately, and other types by their
+ * canonical text. The cache is dropped whenever the Java structure of the project or the
+ * {@link ValueProviderRegistry} changes.
+ */
+@Service(Service.Level.PROJECT)
+public final class TypeClassificationCache {
+
+  public enum TypeKind {
+    /**
+     * Primitive types and types supported by a {@link ValueProvider}, declared as constants.
+     */
+    VALUE,
+    /**
+     * Enums, declared as constants initialized with their first constant.
+     */
+    ENUM,
+    /**
+     * Records, declared as constants created with the values of their components.
+     */
+    RECORD,
+    /**
+     * Lists and sets, for which a single element is declared.
+     */
+    COLLECTION,
+    /**
+     * Non-final classes, declared as mocks.
+     */
+    MOCKABLE,
+    /**
+     * Final classes that are not supported. Nothing is generated for them.
+     */
+    UNSUPPORTED;
+
+    public boolean isPrimitiveOrSupportedFinalClass() {
+      return this == VALUE || this == ENUM || this == RECORD;
+    }
+  }
+
+  private static final Key<CachedValue<Classifications>> CLASSIFICATIONS_KEY = Key.create("mockito.gen.type.classifications");
+
+  private final Project project;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public TypeClassificationCache(Project project) {
+    this.project = project;
+  }
+
+  public static TypeClassificationCache getInstance(Project project) {
+    return project.getService(TypeClassificationCache.class);
+  }
+
+  public TypeKind classify(PsiType type) {
+    Classifications classifications = getClassifications();
+    PsiClass psiClass = PsiUtil.resolveClassInClassTypeOnly(type);
+    if (psiClass != null) {
+      return classify(classifications.byClass, psiClass, type);
+    }
+    return classify(classifications.byText, type.getCanonicalText(), type);
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  private <K> TypeKind classify(Map<K, TypeKind> classifications, K key, PsiType type) {
+    TypeKind kind = classifications.get(key);
+    if (kind != null) {
+      hits.incrementAndGet();
+      return kind;
+    }
+
+    misses.incrementAndGet();
+    kind = computeKind(type);
+    classifications.put(key, kind);
+    return kind;
+  }
+
+  private Classifications getClassifications() {
+    return CachedValuesManager.getManager(project).getCachedValue(project, CLASSIFICATIONS_KEY, () -> CachedValueProvider.Result.create(
+            new Classifications(),
+            PsiModificationTracker.getInstance(project).forLanguage(JavaLanguage.INSTANCE),
+            ValueProviderRegistry.getInstance(project)
+    ), false);
+  }
+
+  private TypeKind computeKind(PsiType type) {
+    if (type instanceof PsiPrimitiveType) {
+      return TypeKind.VALUE;
+    }
+    if (ValueProviderRegistry.getInstance(project).supports(type.getCanonicalText())) {
+      return TypeKind.VALUE;
+    }
+    if (isEnum(type)) {
+      return TypeKind.ENUM;
+    }
+    if (isRecord(type)) {
+      return TypeKind.RECORD;
+    }
+    if (isCollection(type)) {
+      return TypeKind.COLLECTION;
+    }
+    if (isNotFinalClass(type)) {
+      return TypeKind.MOCKABLE;
+    }
+    return TypeKind.UNSUPPORTED;
+  }
+
+  // The checks below only rely on resolved classes and their modifiers, so that library and project classes can be
+  // served from stubs without loading their AST.
+
+  private boolean isNotFinalClass(PsiType psiType) {
+    PsiClass psiClass = PsiUtil.resolveClassInClassTypeOnly(psiType);
+    if (psiClass == null || psiClass.getModifierList() == null) {
+      return true;
+    }
+    return !psiClass.getModifierList().hasExplicitModifier(PsiModifier.FINAL);
+  }
+
+  private boolean isEnum(PsiType psiType) {
+    PsiClass psiClass = PsiUtil.resolveClassInClassTypeOnly(psiType);
+    return psiClass != null && psiClass.isEnum();
+  }
+
+  private boolean isRecord(PsiType psiType) {
+    PsiClass psiClass = PsiUtil.resolveClassInClassTypeOnly(psiType);
+    return psiClass != null && psiClass.isRecord();
+  }
+
+  private boolean isCollection(PsiType type) {
+    return InheritanceUtil.isInheritor(type, CommonClassNames.JAVA_UTIL_LIST)
+            || InheritanceUtil.isInheritor(type, CommonClassNames.JAVA_UTIL_SET);
+  }
+
+  /**
+   * The classified class types, weakly keyed so that the cache does not retain the classes, and the other types.
+   */
+  private static final class Classifications {
+    private final Map<PsiClass, TypeKind> byClass = ContainerUtil.createConcurrentWeakMap();
+    private final Map<String, TypeKind> byText = new ConcurrentHashMap<>();
+  }
+}
@@ -0,0 +1,28 @@
+package com.pelletier197.plugin.codegen.value;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Values of the types configured in the project settings, as expressions written by the user. The type is imported
+ * along with its expression.
+ */
+final class CustomValueProvider implements ValueProvider {
+  private final Map<String, String> expressions;
+
+  CustomValueProvider(Map<String, String> expressions) {
+    this.expressions = Map.copyOf(expressions);
+  }
+
+  @Override
+  public Collection<String> getSupportedTypes() {
+    return expressions.keySet();
+  }
+
+  @Override
+  public GeneratedValue provide(ValueRequest request) {
+    String type = ValueProviderRegistry.erasure(request.getCanonicalText());
+    String expression = expressions.get(type);
+    return type.indexOf('.') > 0 ? GeneratedValue.of(expression, type) : GeneratedValue.of(expression);
+  }
+}
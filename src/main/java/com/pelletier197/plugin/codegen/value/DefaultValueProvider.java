@@ -0,0 +1,69 @@
+package com.pelletier197.plugin.codegen.value;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Values of the primitive types and of the common final classes of the JDK.
+ */
+public final class DefaultValueProvider implements ValueProvider {
+  private static final Map<String, Function<ValueRequest, GeneratedValue>> VALUES = new HashMap<>();
+
+  static {
+    VALUES.put("boolean", request -> GeneratedValue.of("true"));
+    VALUES.put("byte", request -> GeneratedValue.of("(byte) " + randomInt(request)));
+    VALUES.put("short", request -> GeneratedValue.of("(short) " + randomInt(request)));
+    VALUES.put("int", request -> GeneratedValue.of(randomInt(request)));
+    VALUES.put("long", request -> GeneratedValue.of(randomLong(request)));
+    VALUES.put("float", request -> GeneratedValue.of(randomDecimal(request) + "f"));
+    VALUES.put("double", request -> GeneratedValue.of(randomDecimal(request)));
+    VALUES.put("char", request -> GeneratedValue.of("'a'"));
+
+    VALUES.put("java.lang.Boolean", request -> GeneratedValue.of("true"));
+    VALUES.put("java.lang.Integer", request -> GeneratedValue.of(randomInt(request), "java.lang.Integer"));
+    VALUES.put("java.lang.Long", request -> GeneratedValue.of(randomLong(request), "java.lang.Long"));
+    VALUES.put("java.lang.Double", request -> GeneratedValue.of(randomDecimal(request)));
+    VALUES.put("java.lang.String", request -> GeneratedValue.of("\"" + request.getName() + "\"", "java.lang.String"));
+
+    VALUES.put("java.math.BigDecimal", request -> GeneratedValue.of("BigDecimal.valueOf(" + randomInt(request) + ")", "java.math.BigDecimal"));
+    VALUES.put("java.math.BigInteger", request -> GeneratedValue.of("BigInteger.valueOf(" + randomInt(request) + ")", "java.math.BigInteger"));
+    VALUES.put("java.util.UUID", request -> GeneratedValue.of("UUID.randomUUID()", "java.util.UUID"));
+    VALUES.put("java.util.Optional", request -> GeneratedValue.of("Optional.empty()", "java.util.Optional"));
+
+    VALUES.put("java.time.Instant", request -> GeneratedValue.of("Instant.now()", "java.time.Instant"));
+    VALUES.put("java.time.ZonedDateTime", request -> GeneratedValue.of("ZonedDateTime.now()", "java.time.ZonedDateTime"));
+    VALUES.put("java.time.OffsetDateTime", request -> GeneratedValue.of("OffsetDateTime.now()", "java.time.OffsetDateTime"));
+    VALUES.put("java.time.LocalDateTime", request -> GeneratedValue.of("LocalDateTime.now()", "java.time.LocalDateTime"));
+    VALUES.put("java.time.LocalDate", request -> GeneratedValue.of("LocalDate.now()", "java.time.LocalDate"));
+    VALUES.put("java.time.LocalTime", request -> GeneratedValue.of("LocalTime.now()", "java.time.LocalTime"));
+    VALUES.put("java.time.Duration", request -> GeneratedValue.of("Duration.ofSeconds(" + randomInt(request) + ")", "java.time.Duration"));
+  }
+
+  @Override
+  public Collection<String> getSupportedTypes() {
+    return VALUES.keySet();
+  }
+
+  @Override
+  public GeneratedValue provide(ValueRequest request) {
+    return VALUES.get(ValueProviderRegistry.erasure(request.getCanonicalText())).apply(request);
+  }
+
+  private static String randomInt(ValueRequest request) {
+    return String.valueOf(request.getRandom().nextInt(100));
+  }
+
+  /**
+   * An int literal does not compile when assigned to a <code>Long</code>, the literal is therefore suffixed.
+   */
+  private static String randomLong(ValueRequest request) {
+    return randomInt(request) + "L";
+  }
+
+  private static String randomDecimal(ValueRequest request) {
+    return String.format(Locale.ROOT, "%.1f", request.getRandom().nextDouble() * 100);
+  }
+}
@@ -0,0 +1,34 @@
+package com.pelletier197.plugin.codegen.value;
+
+import java.util.List;
+
+/**
+ * Expression assigned to a generated constant, with the classes it requires to be imported.
+ */
+public final class GeneratedValue {
+  public static final GeneratedValue NULL = new GeneratedValue("null", List.of());
+
+  private final String expression;
+  private final List<String> imports;
+
+  private GeneratedValue(String expression, List<String> imports) {
+    this.expression = expression;
+    this.imports = imports;
+  }
+
+  public static GeneratedValue of(String expression, String... imports) {
+    return new GeneratedValue(expression, List.of(imports));
+  }
+
+  public static GeneratedValue of(String expression, List<String> imports) {
+    return new GeneratedValue(expression, List.copyOf(imports));
+  }
+
+  public String getExpression() {
+    return expression;
+  }
+
+  public List<String> getImports() {
+    return imports;
+  }
+}
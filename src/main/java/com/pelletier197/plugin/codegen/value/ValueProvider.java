@@ -0,0 +1,25 @@
+package com.pelletier197.plugin.codegen.value;
+
+import com.intellij.openapi.extensions.ExtensionPointName;
+import com.pelletier197.plugin.codegen.utils.MockitoPluginUtils;
+
+import java.util.Collection;
+
+/**
+ * Provides the values assigned to the constants generated for the types it supports. Other plugins can contribute
+ * providers through the <code>com.sunny.plugin.MockitoGenPlugin.valueProvider</code> extension point, which take
+ * precedence over the default ones.
+ */
+public interface ValueProvider {
+  ExtensionPointName<ValueProvider> EP_NAME = ExtensionPointName.create(MockitoPluginUtils.PLUGIN_ID + ".valueProvider");
+
+  /**
+   * @return the canonical names of the types supported by this provider, without their type arguments.
+   */
+  Collection<String> getSupportedTypes();
+
+  /**
+   * @return the value of a constant of one of the supported types.
+   */
+  GeneratedValue provide(ValueRequest request);
+}
@@ -0,0 +1,206 @@
+package com.pelletier197.plugin.codegen.value;
+
+import com.intellij.lang.java.JavaLanguage;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiEnumConstant;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.pelletier197.plugin.codegen.analysis.AnalysedType;
+import com.pelletier197.plugin.codegen.analysis.AnalysedVariable;
+import com.pelletier197.plugin.codegen.utils.TypeClassificationCache.TypeKind;
+import com.pelletier197.plugin.settings.MockitoGenSettings;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Dispatches the values of the generated constants to the {@link ValueProvider} of their type, with a single lookup
+ * by the canonical name of the type. The custom values of the project settings take precedence over the extensions,
+ * which take precedence over the {@link DefaultValueProvider}.
+ * <p>
+ * The providers are indexed again when an extension is loaded or unloaded or when the settings change, which is
+ * reported through {@link #getModificationCount()} so that the type classifications can be dropped as well. Enums
+ * and records are not indexed, and are valued from their analysed type.
+ */
+@Service(Service.Level.PROJECT)
+public final class ValueProviderRegistry implements ModificationTracker, Disposable {
+  private static final Key<CachedValue<Map<String, String>>> ENUM_FIRST_CONSTANTS_KEY = Key.create("mockito.gen.enum.first.constants");
+  private static final String NO_CONSTANT = "";
+
+  private final Project project;
+  private final SimpleModificationTracker extensionsTracker = new SimpleModificationTracker();
+  private volatile Providers providers;
+
+  public ValueProviderRegistry(Project project) {
+    this.project = project;
+    ValueProvider.EP_NAME.addChangeListener(extensionsTracker::incModificationCount, this);
+  }
+
+  public static ValueProviderRegistry getInstance(Project project) {
+    return project.getService(ValueProviderRegistry.class);
+  }
+
+  /**
+   * @return the canonical text of a type without its type arguments.
+   */
+  public static String erasure(String canonicalText) {
+    int typeArgumentsStart = canonicalText.indexOf('<');
+    return typeArgumentsStart < 0 ? canonicalText : canonicalText.substring(0, typeArgumentsStart);
+  }
+
+  /**
+   * @return the source of the random values of a constant, seeded from the qualified name of the class declaring it
+   * and its name. The values of a constant are then the same on every run, whatever the thread generating them.
+   */
+  public static SplittableRandom seededRandom(String ownerQualifiedName, String memberName) {
+    // 64-bit FNV-1a, since String.hashCode would make similar names collide in the 32 lower bits of the seed
+    long hash = 0xcbf29ce484222325L;
+    String key = ownerQualifiedName + '#' + memberName;
+    for (int i = 0; i < key.length(); i++) {
+      hash ^= key.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    return new SplittableRandom(hash);
+  }
+
+  public boolean supports(String canonicalText) {
+    return getProviders().byType.containsKey(erasure(canonicalText));
+  }
+
+  /**
+   * @return the value of a constant of the given type, or {@link GeneratedValue#NULL} if the type is not supported.
+   */
+  public GeneratedValue getValue(AnalysedType type, String name, SplittableRandom random) {
+    ValueProvider provider = getProviders().byType.get(erasure(type.getCanonicalText()));
+    if (provider != null) {
+      return provider.provide(new ValueRequest(type.getCanonicalText(), type.getPresentableText(), name, random));
+    }
+    if (type.getKind() == TypeKind.ENUM) {
+      return getEnumValue(type);
+    }
+    if (type.getKind() == TypeKind.RECORD && type.getRecordComponents() != null) {
+      return getRecordValue(type, random);
+    }
+    return GeneratedValue.NULL;
+  }
+
+  /**
+   * @return the name of the first constant of an enum, or null if it has none. The constants are cached until the
+   * Java structure of the project changes. Must be called from a read action.
+   */
+  public String getEnumFirstConstant(PsiClass enumClass) {
+    String qualifiedName = enumClass.getQualifiedName();
+    if (qualifiedName == null) {
+      return findFirstConstant(enumClass);
+    }
+
+    Map<String, String> firstConstants = CachedValuesManager.getManager(project).getCachedValue(project, ENUM_FIRST_CONSTANTS_KEY,
+            () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(), PsiModificationTracker.getInstance(project).forLanguage(JavaLanguage.INSTANCE)),
+            false);
+    String firstConstant = firstConstants.computeIfAbsent(qualifiedName, name -> {
+      String constant = findFirstConstant(enumClass);
+      return constant == null ? NO_CONSTANT : constant;
+    });
+    return firstConstant.equals(NO_CONSTANT) ? null : firstConstant;
+  }
+
+  /**
+   * @return the list of the supported types, which changes whenever a type starts or stops being supported.
+   */
+  public String getFingerprint() {
+    return getProviders().fingerprint;
+  }
+
+  @Override
+  public long getModificationCount() {
+    return extensionsTracker.getModificationCount() + MockitoGenSettings.getInstance(project).getModificationCount();
+  }
+
+  @Override
+  public void dispose() {
+  }
+
+  private Providers getProviders() {
+    long modificationCount = getModificationCount();
+    Providers current = providers;
+    if (current == null || current.modificationCount != modificationCount) {
+      current = new Providers(indexProviders(), modificationCount);
+      providers = current;
+    }
+    return current;
+  }
+
+  private Map<String, ValueProvider> indexProviders() {
+    Map<String, ValueProvider> byType = new HashMap<>();
+    List<ValueProvider> orderedProviders = new ArrayList<>();
+    orderedProviders.add(new CustomValueProvider(MockitoGenSettings.getInstance(project).getCustomValues()));
+    orderedProviders.addAll(ValueProvider.EP_NAME.getExtensionList());
+
+    for (ValueProvider provider : orderedProviders) {
+      for (String type : provider.getSupportedTypes()) {
+        byType.putIfAbsent(type, provider);
+      }
+    }
+    return byType;
+  }
+
+  private GeneratedValue getEnumValue(AnalysedType type) {
+    String enumQualifiedName = type.getEnumQualifiedName();
+    if (type.getEnumFirstConstant() == null) {
+      return GeneratedValue.of("null", enumQualifiedName);
+    }
+    String enumName = enumQualifiedName.substring(enumQualifiedName.lastIndexOf('.') + 1);
+    return GeneratedValue.of(enumName + "." + type.getEnumFirstConstant(), enumQualifiedName);
+  }
+
+  private GeneratedValue getRecordValue(AnalysedType type, SplittableRandom random) {
+    String recordQualifiedName = erasure(type.getCanonicalText());
+    List<String> imports = new ArrayList<>(List.of(recordQualifiedName));
+    List<String> arguments = new ArrayList<>();
+
+    for (AnalysedVariable component : type.getRecordComponents()) {
+      GeneratedValue value = getValue(component.getType(), component.getName(), random);
+      arguments.add(value.getExpression());
+      imports.addAll(value.getImports());
+    }
+
+    String recordName = erasure(type.getPresentableText());
+    String typeArguments = recordName.length() < type.getPresentableText().length() ? "<>" : "";
+    return GeneratedValue.of("new " + recordName + typeArguments + "(" + String.join(", ", arguments) + ")", imports);
+  }
+
+  private static String findFirstConstant(PsiClass enumClass) {
+    return Stream.of(enumClass.getFields())
+            .filter(field -> field instanceof PsiEnumConstant)
+            .map(PsiField::getName)
+            .findFirst()
+            .orElse(null);
+  }
+
+  private static final class Providers {
+    private final Map<String, ValueProvider> byType;
+    private final long modificationCount;
+    private final String fingerprint;
+
+    private Providers(Map<String, ValueProvider> byType, long modificationCount) {
+      this.byType = byType;
+      this.modificationCount = modificationCount;
+      this.fingerprint = String.join(",", new TreeSet<>(byType.keySet()));
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package com.pelletier197.plugin.codegen.value;
+
+import java.util.SplittableRandom;
+
+/**
+ * Constant for which a {@link ValueProvider} is asked a value.
+ */
+public final class ValueRequest {
+
+  private final String canonicalText;
+  private final String presentableText;
+  private final String name;
+  private final SplittableRandom random;
+
+  ValueRequest(String canonicalText, String presentableText, String name, SplittableRandom random) {
+    this.canonicalText = canonicalText;
+    this.presentableText = presentableText;
+    this.name = name;
+    this.random = random;
+  }
+
+  /**
+   * @return the canonical text of the type, with its type arguments.
+   */
+  public String getCanonicalText() {
+    return canonicalText;
+  }
+
+  public String getPresentableText() {
+    return presentableText;
+  }
+
+  /**
+   * @return the name of the generated constant.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return the source of the random values of the constant, seeded from the test class and the name of the constant
+   * so that the generated code is the same on every run.
+   */
+  public SplittableRandom getRandom() {
+    return random;
+  }
+}
@@ -0,0 +1,232 @@
+package com.pelletier197.plugin.headless;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ApplicationStarter;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.pelletier197.plugin.bulk.BulkGenerationResult;
+import com.pelletier197.plugin.bulk.BulkGenerator;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Headless entry point generating or verifying the Mockito code of all the test files of a project, for instance
+ * from a CI pipeline:
+ * <pre>
+ * idea mockitoGen &lt;apply|check&gt; &lt;projectPath&gt; [--report &lt;file&gt;] [--path &lt;directory&gt;]...
+ * </pre>
+ * In <code>apply</code> mode, the missing code is written to the test files. In <code>check</code> mode, nothing is
+ * written, and the process exits with a non-zero code if any test file is missing generated code. A JSON report with
+ * the status and timing of each file is written to the report file, or to the standard output. The summary of the
+ * generation is then printed to the standard error, so that the standard output only holds the report.
+ */
+public class MockitoGenApplicationStarter implements ApplicationStarter {
+  private static final Logger LOG = Logger.getInstance(MockitoGenApplicationStarter.class);
+
+  public static final String COMMAND_NAME = "mockitoGen";
+  private static final String APPLY_MODE = "apply";
+  private static final String CHECK_MODE = "check";
+  private static final String REPORT_OPTION = "--report";
+  private static final String PATH_OPTION = "--path";
+
+  static final int SUCCESS_EXIT_CODE = 0;
+  static final int CHECK_FAILED_EXIT_CODE = 1;
+  static final int ERROR_EXIT_CODE = 2;
+
+  @Override
+  public String getCommandName() {
+    return COMMAND_NAME;
+  }
+
+  @Override
+  public int getRequiredModality() {
+    return NOT_IN_EDT;
+  }
+
+  @Override
+  public void main(@NotNull List<String> args) {
+    int exitCode;
+    try {
+      exitCode = run(Arguments.parse(args));
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.println("Usage: " + COMMAND_NAME + " <apply|check> <projectPath> [--report <file>] [--path <directory>]...");
+      exitCode = ERROR_EXIT_CODE;
+    } catch (Throwable e) {
+      LOG.error("Mockito code generation failed", e);
+      exitCode = ERROR_EXIT_CODE;
+    }
+    System.exit(exitCode);
+  }
+
+  private int run(Arguments arguments) throws IOException {
+    long start = System.nanoTime();
+    Project project = ProjectUtil.openOrImport(arguments.getProjectPath(), null, false);
+    if (project == null) {
+      throw new IllegalArgumentException("Could not open project " + arguments.getProjectPath());
+    }
+    DumbService.getInstance(project).waitForSmartMode();
+
+    VirtualFile[] roots = resolveRoots(project, arguments);
+    ProgressIndicator indicator = new EmptyProgressIndicator();
+    BulkGenerator generator = new BulkGenerator(project);
+
+    BulkGenerationResult result = ProgressManager.getInstance().runProcess(() -> {
+      List<VirtualFile> testFiles = DumbService.getInstance(project).runReadActionInSmartMode(() -> BulkGenerator.collectTestFiles(project, roots));
+      return arguments.isCheck() ? generator.check(testFiles, indicator) : generator.generate(testFiles, indicator);
+    }, indicator);
+
+    if (!arguments.isCheck()) {
+      ApplicationManager.getApplication().invokeAndWait(
+              () -> FileDocumentManager.getInstance().saveAllDocuments(), ModalityState.defaultModalityState());
+    }
+
+    String report = createReport(arguments.isCheck(), result, System.nanoTime() - start);
+    if (arguments.getReportPath() == null) {
+      System.out.println(report);
+      System.err.println(result.getSummary());
+    } else {
+      Files.writeString(arguments.getReportPath(), report, StandardCharsets.UTF_8);
+      System.out.println(result.getSummary());
+    }
+    return getExitCode(arguments.isCheck(), result);
+  }
+
+  /**
+   * @return {@link #CHECK_FAILED_EXIT_CODE} if a file failed, or if code is missing from a file in check mode.
+   */
+  static int getExitCode(boolean check, BulkGenerationResult result) {
+    boolean failed = result.count(BulkGenerationResult.Status.FAILED) > 0
+            || check && result.count(BulkGenerationResult.Status.MISSING) > 0;
+    return failed ? CHECK_FAILED_EXIT_CODE : SUCCESS_EXIT_CODE;
+  }
+
+  private VirtualFile[] resolveRoots(Project project, Arguments arguments) {
+    List<Path> paths = arguments.getPaths().isEmpty() ? List.of(arguments.getProjectPath()) : arguments.getPaths();
+    List<VirtualFile> roots = new ArrayList<>();
+    for (Path path : paths) {
+      VirtualFile root = LocalFileSystem.getInstance().refreshAndFindFileByNioFile(arguments.getProjectPath().resolve(path));
+      if (root == null) {
+        throw new IllegalArgumentException("Could not find " + path + " in project " + project.getName());
+      }
+      roots.add(root);
+    }
+    return roots.toArray(VirtualFile.EMPTY_ARRAY);
+  }
+
+  /**
+   * @return the JSON report of a generation, with the status and timing of each file.
+   */
+  static String createReport(boolean check, BulkGenerationResult result, long totalNanos) {
+    List<Map<String, Object>> files = new ArrayList<>();
+    for (BulkGenerationResult.FileResult file : result.getFiles()) {
+      Map<String, Object> entry = new LinkedHashMap<>();
+      entry.put("path", file.getPath());
+      entry.put("status", file.getStatus().name());
+      entry.put("analysisMillis", file.getAnalysisNanos() / 1_000_000.0);
+      entry.put("writeMillis", file.getWriteNanos() / 1_000_000.0);
+      if (file.getError() != null) {
+        entry.put("error", file.getError());
+      }
+      files.add(entry);
+    }
+
+    Map<String, Object> summary = new LinkedHashMap<>();
+    for (BulkGenerationResult.Status status : BulkGenerationResult.Status.values()) {
+      summary.put(status.name().toLowerCase(), result.count(status));
+    }
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("mode", check ? CHECK_MODE : APPLY_MODE);
+    report.put("totalMillis", totalNanos / 1_000_000.0);
+    report.put("cancelled", result.isCancelled());
+    report.put("summary", summary);
+    report.put("files", files);
+
+    Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    return gson.toJson(report);
+  }
+
+  static final class Arguments {
+    private final boolean check;
+    private final Path projectPath;
+    private final Path reportPath;
+    private final List<Path> paths;
+
+    private Arguments(boolean check, Path projectPath, Path reportPath, List<Path> paths) {
+      this.check = check;
+      this.projectPath = projectPath;
+      this.reportPath = reportPath;
+      this.paths = paths;
+    }
+
+    /**
+     * Parses the arguments. The first argument is the command name.
+     *
+     * @throws IllegalArgumentException if the arguments do not match the usage of the command.
+     */
+    static Arguments parse(List<String> args) {
+      if (args.size() < 3) {
+        throw new IllegalArgumentException("Missing arguments");
+      }
+
+      String mode = args.get(1);
+      if (!mode.equals(APPLY_MODE) && !mode.equals(CHECK_MODE)) {
+        throw new IllegalArgumentException("Unknown mode: " + mode);
+      }
+
+      Path projectPath = Path.of(args.get(2)).toAbsolutePath().normalize();
+      Path reportPath = null;
+      List<Path> paths = new ArrayList<>();
+      for (int i = 3; i < args.size(); i += 2) {
+        if (i + 1 >= args.size()) {
+          throw new IllegalArgumentException("Missing value for option " + args.get(i));
+        }
+        switch (args.get(i)) {
+          case REPORT_OPTION -> reportPath = Path.of(args.get(i + 1)).toAbsolutePath();
+          case PATH_OPTION -> paths.add(Path.of(args.get(i + 1)));
+          default -> throw new IllegalArgumentException("Unknown option: " + args.get(i));
+        }
+      }
+      return new Arguments(mode.equals(CHECK_MODE), projectPath, reportPath, paths);
+    }
+
+    boolean isCheck() {
+      return check;
+    }
+
+    Path getProjectPath() {
+      return projectPath;
+    }
+
+    /**
+     * @return the file to write the report to, or null to write it to the standard output.
+     */
+    Path getReportPath() {
+      return reportPath;
+    }
+
+    List<Path> getPaths() {
+      return paths;
+    }
+  }
+}
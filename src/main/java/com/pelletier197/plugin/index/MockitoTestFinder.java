@@ -0,0 +1,91 @@
+package com.pelletier197.plugin.index;
+
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.TestSourcesFilter;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiUtil;
+import com.intellij.testIntegration.TestFinder;
+import com.pelletier197.plugin.codegen.GenerationContext;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Navigates between a class and its tests with the {@link TestedClassIndex}, so that <code>Go To Test</code> also
+ * finds the tests of a class in other modules, and the tests that only target it through an
+ * <code>@InjectMocks</code> field.
+ */
+public class MockitoTestFinder implements TestFinder {
+
+  @Override
+  public @Nullable PsiClass findSourceElement(@NotNull PsiElement from) {
+    return PsiUtil.getTopLevelClass(from);
+  }
+
+  @Override
+  public @NotNull Collection<PsiElement> findTestsForClass(@NotNull PsiElement element) {
+    PsiClass psiClass = findSourceElement(element);
+    if (psiClass == null || psiClass.getQualifiedName() == null || DumbService.isDumb(psiClass.getProject())) {
+      return List.of();
+    }
+
+    Project project = psiClass.getProject();
+    PsiManager psiManager = PsiManager.getInstance(project);
+    List<PsiElement> testClasses = new ArrayList<>();
+    for (VirtualFile testFile : TestedClassIndex.findTestFiles(project, psiClass.getQualifiedName())) {
+      PsiFile psiFile = psiManager.findFile(testFile);
+      if (psiFile instanceof PsiJavaFile javaFile && !javaFile.equals(psiClass.getContainingFile())) {
+        testClasses.addAll(List.of(javaFile.getClasses()));
+      }
+    }
+    return testClasses;
+  }
+
+  @Override
+  public @NotNull Collection<PsiElement> findClassesForTest(@NotNull PsiElement element) {
+    PsiClass testClass = findSourceElement(element);
+    if (testClass == null || DumbService.isDumb(testClass.getProject())) {
+      return List.of();
+    }
+
+    Set<String> underTestNames = new LinkedHashSet<>();
+    String underTestQualifiedName = GenerationContext.getUnderTestQualifiedName(testClass.getQualifiedName());
+    if (underTestQualifiedName != null) {
+      underTestNames.add(underTestQualifiedName);
+    }
+    for (PsiClass injectedClass : GenerationContext.getInjectMocksClasses(testClass)) {
+      underTestNames.add(injectedClass.getQualifiedName());
+    }
+
+    Project project = testClass.getProject();
+    JavaPsiFacade javaPsiFacade = JavaPsiFacade.getInstance(project);
+    List<PsiElement> underTestClasses = new ArrayList<>();
+    for (String name : underTestNames) {
+      PsiClass underTestClass = name == null ? null : javaPsiFacade.findClass(name, GlobalSearchScope.projectScope(project));
+      if (underTestClass != null) {
+        underTestClasses.add(underTestClass);
+      }
+    }
+    return underTestClasses;
+  }
+
+  @Override
+  public boolean isTest(@NotNull PsiElement element) {
+    PsiFile file = element.getContainingFile();
+    VirtualFile virtualFile = file == null ? null : file.getVirtualFile();
+    return virtualFile != null && TestSourcesFilter.isTestSources(virtualFile, element.getProject());
+  }
+}
@@ -0,0 +1,204 @@
+package com.pelletier197.plugin.index;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiImportStatement;
+import com.intellij.psi.PsiImportList;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTypeElement;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiUtil;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.indexing.ScalarIndexExtension;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.pelletier197.plugin.codegen.FieldsCodeInjector;
+import com.pelletier197.plugin.codegen.GenerationContext;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Maps the qualified name of each class under test to the files of the test classes targeting it. A test class
+ * targets the class named like itself without its test suffix, and the classes of its <code>@InjectMocks</code>
+ * fields.
+ * <p>
+ * The indexer only looks at the file being indexed, so the types of the <code>@InjectMocks</code> fields are
+ * qualified from the imports and the package of the file rather than resolved. A type that is not imported by name
+ * is indexed under each class it may refer to: in the package of the file, in the packages and classes imported on
+ * demand, or as written. The test files found under a name are then checked against the resolved types of their
+ * fields when the index is queried.
+ */
+public class TestedClassIndex extends ScalarIndexExtension<String> {
+  public static final ID<String, Void> NAME = ID.create("com.pelletier197.plugin.TestedClassIndex");
+  private static final int VERSION = 2;
+
+  /**
+   * @return the files of the test classes targeting the given class under test. Must be called from a read action in
+   * smart mode.
+   */
+  public static Collection<VirtualFile> findTestFiles(Project project, String underTestQualifiedName) {
+    PsiManager psiManager = PsiManager.getInstance(project);
+    List<VirtualFile> testFiles = new ArrayList<>();
+    for (VirtualFile file : FileBasedIndex.getInstance().getContainingFiles(NAME, underTestQualifiedName, GlobalSearchScope.projectScope(project))) {
+      if (psiManager.findFile(file) instanceof PsiJavaFile javaFile && targets(javaFile, underTestQualifiedName)) {
+        testFiles.add(file);
+      }
+    }
+    return testFiles;
+  }
+
+  /**
+   * @return true if at least one test class targets the given class. Must be called from a read action in smart mode.
+   */
+  public static boolean isTested(Project project, String underTestQualifiedName) {
+    return !findTestFiles(project, underTestQualifiedName).isEmpty();
+  }
+
+  @Override
+  public @NotNull ID<String, Void> getName() {
+    return NAME;
+  }
+
+  @Override
+  public @NotNull DataIndexer<String, Void, FileContent> getIndexer() {
+    return inputData -> {
+      PsiFile psiFile = inputData.getPsiFile();
+      Map<String, Void> testedClasses = new HashMap<>();
+      if (psiFile instanceof PsiJavaFile javaFile) {
+        for (PsiClass psiClass : javaFile.getClasses()) {
+          indexClass(javaFile, psiClass, testedClasses);
+        }
+      }
+      return testedClasses;
+    };
+  }
+
+  @Override
+  public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @Override
+  public int getVersion() {
+    return VERSION;
+  }
+
+  @Override
+  public FileBasedIndex.@NotNull InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE);
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  private static void indexClass(PsiJavaFile javaFile, PsiClass psiClass, Map<String, Void> testedClasses) {
+    String underTestQualifiedName = GenerationContext.getUnderTestQualifiedName(psiClass.getQualifiedName());
+    if (underTestQualifiedName != null) {
+      testedClasses.put(underTestQualifiedName, null);
+    }
+
+    for (PsiField field : psiClass.getFields()) {
+      PsiTypeElement typeElement = field.getTypeElement();
+      if (typeElement != null && isInjectMocks(field)) {
+        PsiJavaCodeReferenceElement reference = typeElement.getInnermostComponentReferenceElement();
+        if (reference != null) {
+          qualify(javaFile, reference).forEach(name -> testedClasses.put(name, null));
+        }
+      }
+    }
+
+    for (PsiClass innerClass : psiClass.getInnerClasses()) {
+      indexClass(javaFile, innerClass, testedClasses);
+    }
+  }
+
+  private static boolean isInjectMocks(PsiField field) {
+    if (field.getModifierList() == null) {
+      return false;
+    }
+    for (PsiAnnotation annotation : field.getModifierList().getAnnotations()) {
+      PsiJavaCodeReferenceElement reference = annotation.getNameReferenceElement();
+      if (reference != null && FieldsCodeInjector.INJECT_MOCKS_CLASS_NAME.equals(reference.getReferenceName())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return true if a class of the file follows the naming convention of the tests of the given class, or has an
+   * <code>@InjectMocks</code> field of the given class.
+   */
+  private static boolean targets(PsiJavaFile javaFile, String underTestQualifiedName) {
+    return Stream.of(javaFile.getClasses()).anyMatch(psiClass -> targets(psiClass, underTestQualifiedName));
+  }
+
+  private static boolean targets(PsiClass psiClass, String underTestQualifiedName) {
+    if (underTestQualifiedName.equals(GenerationContext.getUnderTestQualifiedName(psiClass.getQualifiedName()))) {
+      return true;
+    }
+    for (PsiField field : psiClass.getFields()) {
+      if (isInjectMocks(field)) {
+        PsiClass injectedClass = PsiUtil.resolveClassInClassTypeOnly(field.getType());
+        if (injectedClass != null && underTestQualifiedName.equals(injectedClass.getQualifiedName())) {
+          return true;
+        }
+      }
+    }
+    return Stream.of(psiClass.getInnerClasses()).anyMatch(innerClass -> targets(innerClass, underTestQualifiedName));
+  }
+
+  /**
+   * @return the qualified name of the referenced class if it is imported by name, and all the classes it may refer to
+   * otherwise. A reference to a nested class is qualified from its outermost class.
+   */
+  private static List<String> qualify(PsiJavaFile javaFile, PsiJavaCodeReferenceElement reference) {
+    String text = StringUtil.substringBefore(reference.getText(), "<");
+    text = text == null ? reference.getText() : text.trim();
+    String outermostName = StringUtil.substringBefore(text, ".");
+    String nestedNames = outermostName == null ? "" : text.substring(outermostName.length());
+    outermostName = outermostName == null ? text : outermostName;
+
+    PsiImportList importList = javaFile.getImportList();
+    PsiImportStatement[] importStatements = importList == null ? new PsiImportStatement[0] : importList.getImportStatements();
+    for (PsiImportStatement importStatement : importStatements) {
+      String importedName = importStatement.getQualifiedName();
+      if (!importStatement.isOnDemand() && importedName != null && StringUtil.getShortName(importedName).equals(outermostName)) {
+        return List.of(importedName + nestedNames);
+      }
+    }
+
+    List<String> names = new ArrayList<>();
+    if (!nestedNames.isEmpty()) {
+      names.add(text);
+    }
+    names.add(StringUtil.getQualifiedName(javaFile.getPackageName(), text));
+    for (PsiImportStatement importStatement : importStatements) {
+      String importedName = importStatement.getQualifiedName();
+      if (importStatement.isOnDemand() && importedName != null) {
+        names.add(importedName + "." + text);
+      }
+    }
+    return names;
+  }
+}
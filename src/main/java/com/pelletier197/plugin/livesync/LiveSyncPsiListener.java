@@ -0,0 +1,66 @@
+package com.pelletier197.plugin.livesync;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.pelletier197.plugin.settings.MockitoGenSettings;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Records the production files modified in the projects that enabled the live sync. Test sources, and the files
+ * generated by the sync itself, are ignored.
+ * <p>
+ * The listener is registered in the plugin descriptor rather than by a startup activity, so that nothing is loaded
+ * when a project is opened. The live sync service is only created on the first edit that has to be synced, and the
+ * settings of the project are only looked up once the live sync is enabled in some project.
+ */
+public class LiveSyncPsiListener extends PsiTreeChangeAdapter {
+
+  @Override
+  public void childAdded(@NotNull PsiTreeChangeEvent event) {
+    onChange(event);
+  }
+
+  @Override
+  public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+    onChange(event);
+  }
+
+  @Override
+  public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+    onChange(event);
+  }
+
+  @Override
+  public void childMoved(@NotNull PsiTreeChangeEvent event) {
+    onChange(event);
+  }
+
+  @Override
+  public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+    onChange(event);
+  }
+
+  private void onChange(PsiTreeChangeEvent event) {
+    if (!MockitoGenSettings.isLiveSyncEnabledInAnyProject()) {
+      return;
+    }
+    if (!(event.getFile() instanceof PsiJavaFile javaFile) || !javaFile.isPhysical()) {
+      return;
+    }
+
+    Project project = javaFile.getProject();
+    if (!MockitoGenSettings.getInstance(project).isLiveSync()) {
+      return;
+    }
+
+    VirtualFile file = javaFile.getVirtualFile();
+    ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+    if (file != null && fileIndex.isInSourceContent(file) && !fileIndex.isInTestSourceContent(file)) {
+      LiveSyncService.getInstance(project).onUnderTestFileChanged(file);
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package com.pelletier197.plugin.livesync;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiModifierList;
+import com.intellij.util.Alarm;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.pelletier197.plugin.codegen.GeneratedCodeFormatter;
+import com.pelletier197.plugin.codegen.GenerationPlanApplier;
+import com.pelletier197.plugin.codegen.GenerationPlanner;
+import com.pelletier197.plugin.codegen.RunnerCodeInjector;
+import com.pelletier197.plugin.codegen.plan.GenerationPlan;
+import com.pelletier197.plugin.index.TestedClassIndex;
+import org.jetbrains.annotations.TestOnly;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the test classes in sync with their class under test while it is edited. Edits of production classes are
+ * debounced, and the members missing from the paired test classes are planned in a background read action once the
+ * editing stops. They are then added in a single undoable command.
+ * <p>
+ * Only the test classes already extended with the Mockito extension are synced, which are the ones the code was
+ * generated for. The modified files are recorded by {@link LiveSyncPsiListener}, so that no work is done on the EDT
+ * while typing. The service is only created once a production file is edited with the live sync enabled.
+ */
+@Service(Service.Level.PROJECT)
+public final class LiveSyncService implements Disposable {
+  public static final String COMMAND_NAME = "Sync Mockito JUnit 5 Code";
+  private static final int DEBOUNCE_DELAY_MILLIS = 500;
+
+  private final Project project;
+  private final Alarm alarm;
+  private final Set<VirtualFile> pendingFiles = ConcurrentHashMap.newKeySet();
+
+  public LiveSyncService(Project project) {
+    this.project = project;
+    this.alarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, this);
+  }
+
+  public static LiveSyncService getInstance(Project project) {
+    return project.getService(LiveSyncService.class);
+  }
+
+  /**
+   * Drops the syncs that are waiting for the editing to stop, for instance when the live sync is disabled.
+   */
+  public void cancelPendingSyncs() {
+    alarm.cancelAllRequests();
+    pendingFiles.clear();
+  }
+
+  @Override
+  public void dispose() {
+    pendingFiles.clear();
+  }
+
+  @TestOnly
+  Set<VirtualFile> getPendingFiles() {
+    return Set.copyOf(pendingFiles);
+  }
+
+  @TestOnly
+  int getScheduledSyncCount() {
+    return alarm.getActiveRequestCount();
+  }
+
+  void onUnderTestFileChanged(VirtualFile file) {
+    pendingFiles.add(file);
+    alarm.cancelAllRequests();
+    alarm.addRequest(this::syncPendingFiles, DEBOUNCE_DELAY_MILLIS);
+  }
+
+  private void syncPendingFiles() {
+    List<VirtualFile> files = new ArrayList<>(pendingFiles);
+    files.forEach(pendingFiles::remove);
+    files.forEach(this::sync);
+  }
+
+  private void sync(VirtualFile underTestFile) {
+    ReadAction.nonBlocking(() -> planMissingMembers(underTestFile))
+            .inSmartMode(project)
+            .withDocumentsCommitted(project)
+            .expireWith(this)
+            .coalesceBy(this, underTestFile)
+            .finishOnUiThread(ModalityState.NON_MODAL, plans -> apply(underTestFile, plans))
+            .submit(AppExecutorUtil.getAppExecutorService());
+  }
+
+  private Map<PsiJavaFile, GenerationPlan> planMissingMembers(VirtualFile underTestFile) {
+    Map<PsiJavaFile, GenerationPlan> plans = new LinkedHashMap<>();
+    if (!underTestFile.isValid()) {
+      return plans;
+    }
+
+    PsiFile psiFile = PsiManager.getInstance(project).findFile(underTestFile);
+    if (!(psiFile instanceof PsiJavaFile)) {
+      return plans;
+    }
+
+    GenerationPlanner planner = new GenerationPlanner();
+    for (PsiClass underTestClass : ((PsiJavaFile) psiFile).getClasses()) {
+      for (PsiJavaFile testFile : findGeneratedTestFiles(underTestClass)) {
+        GenerationPlan plan = planner.planMissingMembers(testFile);
+        if (!plan.isEmpty()) {
+          plans.put(testFile, plan);
+        }
+      }
+    }
+    return plans;
+  }
+
+  private List<PsiJavaFile> findGeneratedTestFiles(PsiClass underTestClass) {
+    List<PsiJavaFile> testFiles = new ArrayList<>();
+    String qualifiedName = underTestClass.getQualifiedName();
+    if (qualifiedName == null) {
+      return testFiles;
+    }
+
+    PsiManager psiManager = PsiManager.getInstance(project);
+    for (VirtualFile file : TestedClassIndex.findTestFiles(project, qualifiedName)) {
+      if (psiManager.findFile(file) instanceof PsiJavaFile testFile
+              && !testFile.equals(underTestClass.getContainingFile())
+              && Stream.of(testFile.getClasses()).anyMatch(this::isGenerated)) {
+        testFiles.add(testFile);
+      }
+    }
+    return testFiles;
+  }
+
+  private boolean isGenerated(PsiClass testClass) {
+    PsiModifierList modifierList = testClass.getModifierList();
+    return modifierList != null && modifierList.hasAnnotation(RunnerCodeInjector.EXTEND_WITH_QUALIFIED_CLASS_NAME);
+  }
+
+  private void apply(VirtualFile underTestFile, Map<PsiJavaFile, GenerationPlan> plans) {
+    if (plans.isEmpty()) {
+      return;
+    }
+
+    boolean upToDate = plans.entrySet().stream()
+            .allMatch(entry -> entry.getKey().isValid() && GenerationPlanner.isUpToDate(entry.getKey(), entry.getValue()));
+    if (!upToDate) {
+      sync(underTestFile);
+      return;
+    }
+
+    GenerationPlanApplier applier = new GenerationPlanApplier(JavaPsiFacade.getInstance(project));
+    GeneratedCodeFormatter formatter = new GeneratedCodeFormatter(project);
+    WriteCommandAction.writeCommandAction(project, plans.keySet().toArray(PsiFile.EMPTY_ARRAY))
+            .withName(COMMAND_NAME)
+            .run(() -> plans.forEach((testFile, plan) -> formatter.format(testFile, applier.apply(testFile, plan))));
+  }
+}
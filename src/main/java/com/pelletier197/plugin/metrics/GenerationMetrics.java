@@ -0,0 +1,275 @@
+package com.pelletier197.plugin.metrics;
+
+import com.google.gson.Gson;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Measures the time and allocations of the phases of the generation, and counts the elements inserted and the classes
+ * resolved. Each measure is kept in memory for the metrics tool window, and appended to a rolling JSON lines log in
+ * the log directory of the IDE.
+ * <p>
+ * Recording is disabled by default, in which case spans and counters do nothing. It is enabled from the tool window,
+ * or at startup with <code>-Dmockito.gen.metrics=true</code>.
+ * <p>
+ * The log is written by a single background writer, which is shut down with the service once the last measures are
+ * written.
+ */
+@Service
+public final class GenerationMetrics implements Disposable {
+  public static final String ELEMENTS_INSERTED = "elementsInserted";
+  public static final String CLASSES_RESOLVED = "classesResolved";
+
+  private static final Logger LOG = Logger.getInstance(GenerationMetrics.class);
+  private static final String ENABLED_PROPERTY = "mockito.gen.metrics";
+  private static final String LOG_FILE_NAME = "mockito-gen-metrics.jsonl";
+  private static final long MAX_LOG_FILE_BYTES = 5L * 1024 * 1024;
+  private static final long WRITER_SHUTDOWN_TIMEOUT_SECONDS = 5;
+  private static final int SAMPLES_PER_PHASE = 1000;
+  private static final Gson GSON = new Gson();
+
+  /**
+   * A measured phase, closed when the phase ends.
+   */
+  public interface Span extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  private static final Span NO_SPAN = () -> {
+  };
+
+  private final Map<String, PhaseSamples> phases = new ConcurrentHashMap<>();
+  private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+  private final Queue<String> pendingLines = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean writeScheduled = new AtomicBoolean();
+  private final ExecutorService writer = AppExecutorUtil.createBoundedApplicationPoolExecutor("Mockito Metrics Writer", 1);
+  private final com.sun.management.ThreadMXBean allocationBean = getAllocationBean();
+  private final Path logFile = Path.of(PathManager.getLogPath(), LOG_FILE_NAME);
+  private final ThreadLocal<Boolean> suspended = ThreadLocal.withInitial(() -> false);
+  private volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+  public static GenerationMetrics getInstance() {
+    return ApplicationManager.getApplication().getService(GenerationMetrics.class);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * @return true if the spans and counters are recorded on the current thread.
+   */
+  public boolean isRecording() {
+    return enabled && !suspended.get();
+  }
+
+  public Span startSpan(String phase) {
+    if (!isRecording()) {
+      return NO_SPAN;
+    }
+    return new RecordingSpan(phase);
+  }
+
+  public void count(String counter, long delta) {
+    if (!isRecording() || delta == 0) {
+      return;
+    }
+    counters.computeIfAbsent(counter, name -> new AtomicLong()).addAndGet(delta);
+    log(Map.of("timestamp", System.currentTimeMillis(), "counter", counter, "delta", delta));
+  }
+
+  /**
+   * Runs a computation without recording its spans and counters on the current thread, for the generations that are
+   * not requested by the user, such as the ones checking whether an action is enabled.
+   */
+  public <T> T computeWithoutRecording(Supplier<T> computation) {
+    if (!enabled || suspended.get()) {
+      return computation.get();
+    }
+    suspended.set(true);
+    try {
+      return computation.get();
+    } finally {
+      suspended.set(false);
+    }
+  }
+
+  /**
+   * @return the statistics of each phase, sorted by phase name.
+   */
+  public List<PhaseStatistics> getPhaseStatistics() {
+    List<PhaseStatistics> statistics = new ArrayList<>();
+    new TreeMap<>(phases).forEach((phase, samples) -> statistics.add(samples.toStatistics()));
+    return statistics;
+  }
+
+  public Map<String, Long> getCounters() {
+    Map<String, Long> values = new TreeMap<>();
+    counters.forEach((counter, value) -> values.put(counter, value.get()));
+    return values;
+  }
+
+  public void clear() {
+    phases.clear();
+    counters.clear();
+  }
+
+  /**
+   * @return the file the measures are appended to.
+   */
+  public Path getLogFile() {
+    return logFile;
+  }
+
+  @Override
+  public void dispose() {
+    writer.shutdown();
+    try {
+      if (!writer.awaitTermination(WRITER_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        return;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    writePendingLines();
+  }
+
+  void record(String phase, long durationNanos, long allocatedBytes) {
+    phases.computeIfAbsent(phase, PhaseSamples::new).add(durationNanos, allocatedBytes);
+    log(Map.of("timestamp", System.currentTimeMillis(), "phase", phase, "durationNanos", durationNanos, "allocatedBytes", allocatedBytes));
+  }
+
+  private void log(Map<String, Object> entry) {
+    pendingLines.add(GSON.toJson(entry));
+    if (!writer.isShutdown() && writeScheduled.compareAndSet(false, true)) {
+      try {
+        writer.execute(this::writePendingLines);
+      } catch (RejectedExecutionException e) {
+        // Shut down in between, the pending lines are written by dispose
+      }
+    }
+  }
+
+  private void writePendingLines() {
+    writeScheduled.set(false);
+    StringBuilder lines = new StringBuilder();
+    for (String line = pendingLines.poll(); line != null; line = pendingLines.poll()) {
+      lines.append(line).append('\n');
+    }
+    if (lines.length() == 0) {
+      return;
+    }
+
+    try {
+      if (Files.exists(logFile) && Files.size(logFile) > MAX_LOG_FILE_BYTES) {
+        Files.move(logFile, logFile.resolveSibling(LOG_FILE_NAME + ".1"), StandardCopyOption.REPLACE_EXISTING);
+      }
+      Files.writeString(logFile, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      LOG.warn("Could not write the Mockito generation metrics to " + logFile, e);
+    }
+  }
+
+  private long getAllocatedBytes() {
+    return allocationBean == null ? 0 : allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private static com.sun.management.ThreadMXBean getAllocationBean() {
+    ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    if (threadBean instanceof com.sun.management.ThreadMXBean allocationBean && allocationBean.isThreadAllocatedMemorySupported()) {
+      return allocationBean;
+    }
+    return null;
+  }
+
+  private final class RecordingSpan implements Span {
+    private final String phase;
+    private final long startBytes;
+    private final long startNanos;
+
+    private RecordingSpan(String phase) {
+      this.phase = phase;
+      this.startBytes = getAllocatedBytes();
+      this.startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void close() {
+      long durationNanos = System.nanoTime() - startNanos;
+      record(phase, durationNanos, getAllocatedBytes() - startBytes);
+    }
+  }
+
+  /**
+   * The last measures of a phase, in a circular buffer.
+   */
+  private static final class PhaseSamples {
+    private final String phase;
+    private final long[] durations = new long[SAMPLES_PER_PHASE];
+    private final long[] allocations = new long[SAMPLES_PER_PHASE];
+    private long count;
+
+    private PhaseSamples(String phase) {
+      this.phase = phase;
+    }
+
+    private synchronized void add(long durationNanos, long allocatedBytes) {
+      int index = (int) (count % SAMPLES_PER_PHASE);
+      durations[index] = durationNanos;
+      allocations[index] = allocatedBytes;
+      count++;
+    }
+
+    private synchronized PhaseStatistics toStatistics() {
+      int size = (int) Math.min(count, SAMPLES_PER_PHASE);
+      long[] sortedDurations = Arrays.copyOf(durations, size);
+      long[] sortedAllocations = Arrays.copyOf(allocations, size);
+      Arrays.sort(sortedDurations);
+      Arrays.sort(sortedAllocations);
+      return new PhaseStatistics(phase, count,
+              percentile(sortedDurations, 0.5), percentile(sortedDurations, 0.95),
+              percentile(sortedAllocations, 0.5), percentile(sortedAllocations, 0.95));
+    }
+
+    private static long percentile(long[] sortedValues, double percentile) {
+      if (sortedValues.length == 0) {
+        return 0;
+      }
+      int index = (int) Math.ceil(percentile * sortedValues.length) - 1;
+      return sortedValues[Math.max(index, 0)];
+    }
+  }
+}
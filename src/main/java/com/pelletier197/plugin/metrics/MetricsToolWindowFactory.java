@@ -0,0 +1,116 @@
+package com.pelletier197.plugin.metrics;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.ActionToolbar;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.actionSystem.ToggleAction;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.ScrollPaneFactory;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import com.intellij.ui.table.JBTable;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.JPanel;
+import javax.swing.table.DefaultTableModel;
+import java.awt.BorderLayout;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Shows the p50 and p95 of the time and allocations of each phase of the generation, and the counters, as recorded
+ * by {@link GenerationMetrics}.
+ */
+public class MetricsToolWindowFactory implements ToolWindowFactory, DumbAware {
+  private static final String[] COLUMNS = {"Phase", "Count", "p50 (ms)", "p95 (ms)", "p50 (KiB)", "p95 (KiB)"};
+
+  @Override
+  public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+    MetricsPanel panel = new MetricsPanel();
+    Content content = ContentFactory.getInstance().createContent(panel, null, false);
+    toolWindow.getContentManager().addContent(content);
+  }
+
+  private static final class MetricsPanel extends SimpleToolWindowPanel {
+    private final GenerationMetrics metrics = GenerationMetrics.getInstance();
+    private final DefaultTableModel model = new DefaultTableModel(COLUMNS, 0) {
+      @Override
+      public boolean isCellEditable(int row, int column) {
+        return false;
+      }
+    };
+    private final JBLabel counters = new JBLabel();
+
+    private MetricsPanel() {
+      super(true, true);
+
+      DefaultActionGroup actions = new DefaultActionGroup();
+      actions.add(new RecordAction());
+      actions.add(DumbAwareAction.create("Refresh", AllIcons.Actions.Refresh, e -> refresh()));
+      actions.add(DumbAwareAction.create("Clear", AllIcons.Actions.GC, e -> {
+        metrics.clear();
+        refresh();
+      }));
+      ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("MockitoGenMetrics", actions, true);
+      toolbar.setTargetComponent(this);
+      setToolbar(toolbar.getComponent());
+
+      JPanel content = new JPanel(new BorderLayout());
+      content.add(ScrollPaneFactory.createScrollPane(new JBTable(model)), BorderLayout.CENTER);
+      content.add(counters, BorderLayout.SOUTH);
+      setContent(content);
+      refresh();
+    }
+
+    private void refresh() {
+      model.setRowCount(0);
+      for (PhaseStatistics statistics : metrics.getPhaseStatistics()) {
+        model.addRow(new Object[]{
+                statistics.getPhase(),
+                statistics.getCount(),
+                toMillis(statistics.getP50Nanos()),
+                toMillis(statistics.getP95Nanos()),
+                statistics.getP50AllocatedBytes() / 1024,
+                statistics.getP95AllocatedBytes() / 1024
+        });
+      }
+      counters.setText(metrics.getCounters().entrySet().stream()
+              .map(counter -> counter.getKey() + ": " + counter.getValue())
+              .collect(Collectors.joining("   ")));
+    }
+
+    private static String toMillis(long nanos) {
+      return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+    }
+
+    private final class RecordAction extends ToggleAction implements DumbAware {
+      private RecordAction() {
+        super("Record", "Record the metrics of the generation", AllIcons.Actions.Profile);
+      }
+
+      @Override
+      public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+      }
+
+      @Override
+      public boolean isSelected(@NotNull AnActionEvent e) {
+        return metrics.isEnabled();
+      }
+
+      @Override
+      public void setSelected(@NotNull AnActionEvent e, boolean state) {
+        metrics.setEnabled(state);
+      }
+    }
+  }
+}
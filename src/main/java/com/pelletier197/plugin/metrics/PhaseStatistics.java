@@ -0,0 +1,46 @@
+package com.pelletier197.plugin.metrics;
+
+/**
+ * Percentiles of the time and allocations of a phase, over its last measures.
+ */
+public class PhaseStatistics {
+  private final String phase;
+  private final long count;
+  private final long p50Nanos;
+  private final long p95Nanos;
+  private final long p50AllocatedBytes;
+  private final long p95AllocatedBytes;
+
+  public PhaseStatistics(String phase, long count, long p50Nanos, long p95Nanos, long p50AllocatedBytes, long p95AllocatedBytes) {
+    this.phase = phase;
+    this.count = count;
+    this.p50Nanos = p50Nanos;
+    this.p95Nanos = p95Nanos;
+    this.p50AllocatedBytes = p50AllocatedBytes;
+    this.p95AllocatedBytes = p95AllocatedBytes;
+  }
+
+  public String getPhase() {
+    return phase;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getP50Nanos() {
+    return p50Nanos;
+  }
+
+  public long getP95Nanos() {
+    return p95Nanos;
+  }
+
+  public long getP50AllocatedBytes() {
+    return p50AllocatedBytes;
+  }
+
+  public long getP95AllocatedBytes() {
+    return p95AllocatedBytes;
+  }
+}
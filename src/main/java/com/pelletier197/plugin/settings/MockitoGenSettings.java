@@ -0,0 +1,117 @@
+package com.pelletier197.plugin.settings;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Project settings of the plugin, stored in <code>.idea/mockitoGen.xml</code>, which is shared with the other users of
+ * the project when the <code>.idea</code> directory is under version control.
+ */
+@Service(Service.Level.PROJECT)
+@State(name = "MockitoGenSettings", storages = @Storage("mockitoGen.xml"))
+public final class MockitoGenSettings implements PersistentStateComponent<MockitoGenSettings.SettingsState>, ModificationTracker, Disposable {
+  private static final AtomicInteger liveSyncProjectCount = new AtomicInteger();
+
+  public static class SettingsState {
+    /**
+     * Keeps the test classes in sync with their class under test while it is edited.
+     */
+    public boolean liveSync = false;
+
+    /**
+     * Only mocks the dependencies that <code>@InjectMocks</code> injects into the class under test, instead of all its
+     * non-static fields.
+     */
+    public boolean injectedMocksOnly = false;
+
+    /**
+     * Expressions assigned to the constants of the given types, keyed by the canonical name of the type.
+     */
+    public Map<String, String> customValues = new LinkedHashMap<>();
+  }
+
+  private final SimpleModificationTracker modificationTracker = new SimpleModificationTracker();
+  private SettingsState state = new SettingsState();
+
+  public static MockitoGenSettings getInstance(Project project) {
+    return project.getService(MockitoGenSettings.class);
+  }
+
+  /**
+   * @return true if the live sync is enabled in at least one open project. Unlike {@link #isLiveSync()}, it does not
+   * look the settings of a project up, so it can be checked on every PSI event.
+   */
+  public static boolean isLiveSyncEnabledInAnyProject() {
+    return liveSyncProjectCount.get() > 0;
+  }
+
+  @Override
+  public @NotNull SettingsState getState() {
+    return state;
+  }
+
+  @Override
+  public void loadState(@NotNull SettingsState state) {
+    updateLiveSyncProjectCount(this.state.liveSync, state.liveSync);
+    this.state = state;
+    modificationTracker.incModificationCount();
+  }
+
+  public boolean isLiveSync() {
+    return state.liveSync;
+  }
+
+  public void setLiveSync(boolean liveSync) {
+    updateLiveSyncProjectCount(state.liveSync, liveSync);
+    state.liveSync = liveSync;
+  }
+
+  public boolean isInjectedMocksOnly() {
+    return state.injectedMocksOnly;
+  }
+
+  public void setInjectedMocksOnly(boolean injectedMocksOnly) {
+    state.injectedMocksOnly = injectedMocksOnly;
+    modificationTracker.incModificationCount();
+  }
+
+  public Map<String, String> getCustomValues() {
+    return state.customValues;
+  }
+
+  public void setCustomValues(Map<String, String> customValues) {
+    state.customValues = new LinkedHashMap<>(customValues);
+    modificationTracker.incModificationCount();
+  }
+
+  /**
+   * @return a count increased whenever the settings that change the generated code, the custom values and the mocks
+   * generated for the fields, may have changed.
+   */
+  @Override
+  public long getModificationCount() {
+    return modificationTracker.getModificationCount();
+  }
+
+  @Override
+  public void dispose() {
+    updateLiveSyncProjectCount(state.liveSync, false);
+  }
+
+  private static void updateLiveSyncProjectCount(boolean liveSync, boolean newLiveSync) {
+    if (liveSync != newLiveSync) {
+      liveSyncProjectCount.addAndGet(newLiveSync ? 1 : -1);
+    }
+  }
+}
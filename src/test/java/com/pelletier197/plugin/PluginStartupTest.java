@@ -0,0 +1,75 @@
+package com.pelletier197.plugin;
+
+import com.intellij.ide.plugins.DynamicPlugins;
+import com.intellij.ide.plugins.IdeaPluginDescriptorImpl;
+import com.intellij.ide.plugins.PluginManagerCore;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.extensions.PluginId;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.testFramework.HeavyPlatformTestCase;
+import com.intellij.testFramework.PsiTestUtil;
+import com.pelletier197.plugin.action.GenerationQueue;
+import com.pelletier197.plugin.codegen.utils.MockitoPluginUtils;
+import com.pelletier197.plugin.codegen.utils.TypeClassificationCache;
+import com.pelletier197.plugin.codegen.value.ValueProviderRegistry;
+import com.pelletier197.plugin.livesync.LiveSyncService;
+import com.pelletier197.plugin.settings.MockitoGenSettings;
+
+import java.util.List;
+
+/**
+ * Ensures that the plugin does not cost anything when a project is opened: its services are only created on their
+ * first use, and the plugin can be installed and updated without a restart.
+ */
+public class PluginStartupTest extends HeavyPlatformTestCase {
+  private static final List<Class<?>> PROJECT_SERVICES = List.of(
+          MockitoGenSettings.class,
+          TypeClassificationCache.class,
+          ValueProviderRegistry.class,
+          LiveSyncService.class,
+          GenerationQueue.class
+  );
+
+  public void testNoServiceIsCreatedWhenTheProjectIsOpened() {
+    for (Class<?> service : PROJECT_SERVICES) {
+      assertNull(service.getSimpleName() + " should not be created before its first use", getProject().getServiceIfCreated(service));
+    }
+  }
+
+  public void testEditingAProductionClassWithoutLiveSyncDoesNotCreateTheLiveSyncService() throws Exception {
+    VirtualFile sourceRoot = getTempDir().createVirtualDir();
+    PsiTestUtil.addSourceRoot(getModule(), sourceRoot);
+    VirtualFile file = createChildData(sourceRoot, "Service.java");
+    setFileText(file, "public class Service {\n}\n");
+
+    PsiFile psiFile = PsiManager.getInstance(getProject()).findFile(file);
+    PsiDocumentManager documentManager = PsiDocumentManager.getInstance(getProject());
+    Document document = documentManager.getDocument(psiFile);
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      document.insertString(document.getTextLength() - 2, "  private String name;\n");
+      documentManager.commitDocument(document);
+    });
+
+    assertNull(getProject().getServiceIfCreated(MockitoGenSettings.class));
+    assertNull(getProject().getServiceIfCreated(LiveSyncService.class));
+    assertNull(getProject().getServiceIfCreated(TypeClassificationCache.class));
+  }
+
+  public void testServicesAreCreatedOnFirstUse() {
+    assertFalse(MockitoGenSettings.getInstance(getProject()).isLiveSync());
+
+    assertNotNull(getProject().getServiceIfCreated(MockitoGenSettings.class));
+    assertNull(getProject().getServiceIfCreated(TypeClassificationCache.class));
+  }
+
+  public void testPluginCanBeLoadedAndUnloadedWithoutRestart() {
+    IdeaPluginDescriptorImpl descriptor = (IdeaPluginDescriptorImpl) PluginManagerCore.getPlugin(PluginId.getId(MockitoPluginUtils.PLUGIN_ID));
+
+    assertNotNull(descriptor);
+    assertTrue(DynamicPlugins.allowLoadUnloadWithoutRestart(descriptor));
+  }
+}
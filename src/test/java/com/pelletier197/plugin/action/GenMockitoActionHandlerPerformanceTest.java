@@ -0,0 +1,231 @@
+package com.pelletier197.plugin.action;
+
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.actionSystem.DataContext;
+import com.intellij.openapi.actionSystem.impl.SimpleDataContext;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.pelletier197.plugin.codegen.CodeInjector;
+import com.pelletier197.plugin.codegen.FieldsCodeInjector;
+import com.pelletier197.plugin.codegen.GenerationPlanner;
+import com.pelletier197.plugin.codegen.utils.MockitoPluginUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs the whole generation pipeline on synthetic classes under test of increasing size, and fails when the time of
+ * the pipeline, or the time and allocations of an injector, go over their budget.
+ * <p>
+ * The budgets are generous on purpose, so that the suite can run on any machine. They are meant to catch changes in
+ * how the generation scales, not small variations.
+ */
+public class GenMockitoActionHandlerPerformanceTest extends LightJavaCodeInsightFixtureTestCase {
+  private static final String TEST_FILE_NAME = "FacadeTest.java";
+  private static final String TEST_FILE_TEXT = "package perf;\n\nclass FacadeTest {\n}\n";
+  private static final int GENERATION_TIMEOUT_SECONDS = 120;
+  private static final int INJECTOR_WARMUP_ITERATIONS = 2;
+  private static final int INJECTOR_MEASURED_ITERATIONS = 3;
+
+  private static final long INJECTOR_BASE_ALLOCATION_BYTES = 8L * 1024 * 1024;
+  private static final long INJECTOR_ALLOCATION_BYTES_PER_MEMBER = 256L * 1024;
+  private static final long INJECTOR_BASE_NANOS = 500_000_000L;
+  private static final long INJECTOR_NANOS_PER_MEMBER = 5_000_000L;
+
+  private static final int DEPTH = 20;
+  private static final int FIELDS_PER_LEVEL = 5;
+  private static final int ENUM_COUNT = 100;
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myFixture.addClass("package perf;\npublic enum Status { ACTIVE, INACTIVE }");
+    myFixture.addClass("package perf;\npublic class Repository {}");
+  }
+
+  public void testTenMethods() {
+    myFixture.addClass(createClassWithMethods(10));
+    assertGenerationWithinBudget("10 methods", 10, 1_000);
+  }
+
+  public void testHundredMethods() {
+    myFixture.addClass(createClassWithMethods(100));
+    assertGenerationWithinBudget("100 methods", 100, 3_000);
+  }
+
+  public void testThousandMethods() {
+    myFixture.addClass(createClassWithMethods(1_000));
+    assertGenerationWithinBudget("1000 methods", 1_000, 20_000);
+  }
+
+  public void testDeepInheritance() {
+    for (int level = 0; level < DEPTH; level++) {
+      myFixture.addClass(createLevelClass(level));
+    }
+    myFixture.addClass("package perf;\npublic class Facade extends Level" + (DEPTH - 1) + " {\n  public void process(Repository repository) {}\n}\n");
+    assertGenerationWithinBudget("deep inheritance", DEPTH * FIELDS_PER_LEVEL, 2_000);
+  }
+
+  public void testManyEnumsAndCollections() {
+    for (int i = 0; i < ENUM_COUNT; i++) {
+      myFixture.addClass("package perf;\npublic enum Kind" + i + " { FIRST, SECOND }");
+    }
+    myFixture.addClass(createClassWithEnumsAndCollections());
+    assertGenerationWithinBudget("enums and collections", ENUM_COUNT * 3, 3_000);
+  }
+
+  private void assertGenerationWithinBudget(String scenario, int memberCount, int expectedMillis) {
+    PsiJavaFile testFile = configureTestFile();
+    InjectorRecorder recorder = new InjectorRecorder();
+    GenerationPlanner planner = new GenerationPlanner(recorder);
+    for (int i = 0; i < INJECTOR_WARMUP_ITERATIONS; i++) {
+      planner.plan(testFile);
+    }
+    recorder.reset();
+    for (int i = 0; i < INJECTOR_MEASURED_ITERATIONS; i++) {
+      planner.plan(testFile);
+    }
+    recorder.assertWithinBudget(scenario, memberCount);
+
+    PlatformTestUtil.startPerformanceTest("Generate Mockito code for " + scenario, expectedMillis, this::generate)
+            .setup(this::configureTestFile)
+            .attempts(3)
+            .assertTiming();
+  }
+
+  private PsiJavaFile configureTestFile() {
+    return (PsiJavaFile) myFixture.configureByText(TEST_FILE_NAME, TEST_FILE_TEXT);
+  }
+
+  private void generate() {
+    PsiJavaFile testFile = (PsiJavaFile) myFixture.getFile();
+    DataContext dataContext = SimpleDataContext.builder()
+            .add(CommonDataKeys.PROJECT, getProject())
+            .add(CommonDataKeys.EDITOR, myFixture.getEditor())
+            .add(CommonDataKeys.PSI_FILE, testFile)
+            .build();
+
+    new GenMockitoActionHandler().execute(myFixture.getEditor(), null, dataContext);
+    PlatformTestUtil.waitWithEventsDispatching("The generation did not complete",
+            () -> hasUnderTestField(testFile), GENERATION_TIMEOUT_SECONDS);
+  }
+
+  private static boolean hasUnderTestField(PsiJavaFile testFile) {
+    PsiClass testClass = MockitoPluginUtils.getUnitTestClass(testFile);
+    return testClass.findFieldByName(FieldsCodeInjector.UNDER_TEST_FIELD_NAME, false) != null;
+  }
+
+  private static String createClassWithMethods(int methodCount) {
+    StringBuilder builder = new StringBuilder("package perf;\n\nimport java.util.List;\n\npublic class Facade {\n")
+            .append("  private Repository repository;\n")
+            .append("  private String name;\n");
+    for (int i = 0; i < methodCount; i++) {
+      builder.append("  public void process").append(i)
+              .append("(Repository repository").append(i)
+              .append(", String label").append(i)
+              .append(", Status status").append(i)
+              .append(", List<Repository> repositories").append(i)
+              .append(", int count").append(i)
+              .append(") {}\n");
+    }
+    return builder.append("}\n").toString();
+  }
+
+  private static String createLevelClass(int level) {
+    StringBuilder builder = new StringBuilder("package perf;\n\npublic class Level").append(level);
+    if (level > 0) {
+      builder.append(" extends Level").append(level - 1);
+    }
+    builder.append(" {\n");
+    for (int i = 0; i < FIELDS_PER_LEVEL; i++) {
+      builder.append("  private Repository repository").append(level).append('_').append(i).append(";\n");
+    }
+    return builder.append("}\n").toString();
+  }
+
+  private static String createClassWithEnumsAndCollections() {
+    StringBuilder builder = new StringBuilder("package perf;\n\nimport java.util.List;\nimport java.util.Set;\nimport java.util.UUID;\n\npublic class Facade {\n");
+    for (int i = 0; i < ENUM_COUNT; i++) {
+      builder.append("  private Kind").append(i).append(" kind").append(i).append(";\n")
+              .append("  private List<Kind").append(i).append("> kinds").append(i).append(";\n")
+              .append("  private Set<Repository> repositories").append(i).append(";\n");
+    }
+    for (int i = 0; i < ENUM_COUNT; i++) {
+      builder.append("  public void update").append(i)
+              .append("(Kind").append(i).append(" kind, List<Kind").append(i).append("> kinds, Set<UUID> identifiers) {}\n");
+    }
+    return builder.append("}\n").toString();
+  }
+
+  /**
+   * Records the wall time and the bytes allocated by all the threads while each injector runs, since the analysis of
+   * the class under test runs its methods on the workers of the {@link com.intellij.concurrency.JobLauncher}. The
+   * analysis is lazy, so that its cost is recorded by the first injector that reads it. Each injector keeps the lowest
+   * time and allocation of the runs since the last {@link #reset()}, so that both are measured over the same warmed
+   * runs, and so that the allocations of the unrelated threads of the platform weigh as little as possible.
+   */
+  private static final class InjectorRecorder implements GenerationPlanner.InjectorListener {
+    private final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final Map<String, long[]> measures = new LinkedHashMap<>();
+    private long startNanos;
+    private Map<Long, Long> startBytes;
+
+    @Override
+    public void beforeInject(CodeInjector injector) {
+      startBytes = getAllocatedBytesByThread();
+      startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void afterInject(CodeInjector injector) {
+      long nanos = System.nanoTime() - startNanos;
+      long bytes = 0;
+      for (Map.Entry<Long, Long> allocatedBytes : getAllocatedBytesByThread().entrySet()) {
+        // The threads started while the injector ran allocated all their bytes during the run
+        bytes += allocatedBytes.getValue() - startBytes.getOrDefault(allocatedBytes.getKey(), 0L);
+      }
+      measures.merge(injector.getClass().getSimpleName(), new long[]{nanos, bytes},
+              (best, last) -> new long[]{Math.min(best[0], last[0]), Math.min(best[1], last[1])});
+    }
+
+    private Map<Long, Long> getAllocatedBytesByThread() {
+      long[] threadIds = threadBean.getAllThreadIds();
+      long[] allocatedBytes = threadBean.getThreadAllocatedBytes(threadIds);
+      Map<Long, Long> allocatedBytesByThread = new HashMap<>();
+      for (int i = 0; i < threadIds.length; i++) {
+        // The threads that terminated in between are reported as -1
+        if (allocatedBytes[i] >= 0) {
+          allocatedBytesByThread.put(threadIds[i], allocatedBytes[i]);
+        }
+      }
+      return allocatedBytesByThread;
+    }
+
+    private void reset() {
+      measures.clear();
+    }
+
+    private void assertWithinBudget(String scenario, int memberCount) {
+      long nanosBudget = INJECTOR_BASE_NANOS + memberCount * INJECTOR_NANOS_PER_MEMBER;
+      long bytesBudget = INJECTOR_BASE_ALLOCATION_BYTES + memberCount * INJECTOR_ALLOCATION_BYTES_PER_MEMBER;
+
+      measures.forEach((injector, measure) -> {
+        assertTrue(injector + " took " + measure[0] / 1_000_000 + " ms for " + scenario
+                + ", over its budget of " + nanosBudget / 1_000_000 + " ms", measure[0] <= nanosBudget);
+        assertTrue(injector + " allocated " + measure[1] / 1024 + " KiB for " + scenario
+                + ", over its budget of " + bytesBudget / 1024 + " KiB", measure[1] <= bytesBudget);
+      });
+    }
+  }
+}
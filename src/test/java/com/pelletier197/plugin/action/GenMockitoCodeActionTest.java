@@ -0,0 +1,128 @@
+package com.pelletier197.plugin.action;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.pelletier197.plugin.codegen.GeneratedCodeFormatter;
+import com.pelletier197.plugin.codegen.GenerationPlanApplier;
+import com.pelletier197.plugin.codegen.GenerationPlanner;
+import com.pelletier197.plugin.metrics.GenerationMetrics;
+import com.pelletier197.plugin.settings.MockitoGenSettings;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+
+public class GenMockitoCodeActionTest extends LightJavaCodeInsightFixtureTestCase {
+  private static final String TEST_FILE_TEXT = "package action;\n\nclass ServiceTest {\n}\n";
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myFixture.addClass("package action;\npublic class Repository {}");
+    myFixture.addClass("package action;\npublic final class Money {}");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      MockitoGenSettings.getInstance(getProject()).setCustomValues(Map.of());
+      GenerationMetrics.getInstance().setEnabled(false);
+    } catch (Throwable e) {
+      addSuppressedException(e);
+    } finally {
+      super.tearDown();
+    }
+  }
+
+  public void testTheActionIsEnabledOnceTheClassUnderTestIsCreated() {
+    PsiJavaFile testFile = (PsiJavaFile) myFixture.configureByText("ServiceTest.java", TEST_FILE_TEXT);
+    assertFalse(GenMockitoCodeAction.hasMissingCode(testFile));
+
+    addService();
+
+    assertTrue(GenMockitoCodeAction.hasMissingCode(testFile));
+  }
+
+  public void testTheActionIsDisabledOnceTheCodeIsGenerated() {
+    addService();
+    PsiJavaFile testFile = (PsiJavaFile) myFixture.configureByText("ServiceTest.java", TEST_FILE_TEXT);
+    assertTrue(GenMockitoCodeAction.hasMissingCode(testFile));
+
+    generate(testFile);
+
+    assertFalse(GenMockitoCodeAction.hasMissingCode(testFile));
+  }
+
+  public void testTheActionIsEnabledAgainOnceTheSettingsSupportANewValue() {
+    addService();
+    PsiJavaFile testFile = (PsiJavaFile) myFixture.configureByText("ServiceTest.java", TEST_FILE_TEXT);
+    generate(testFile);
+    assertFalse(GenMockitoCodeAction.hasMissingCode(testFile));
+
+    MockitoGenSettings.getInstance(getProject()).setCustomValues(Map.of("action.Money", "new Money()"));
+
+    assertTrue(GenMockitoCodeAction.hasMissingCode(testFile));
+  }
+
+  public void testTheActionIsEnabledAgainOnceATestedMethodGainsAParameter() {
+    PsiClass service = addService();
+    PsiJavaFile testFile = (PsiJavaFile) myFixture.configureByText("ServiceTest.java", TEST_FILE_TEXT);
+    generate(testFile);
+    assertFalse(GenMockitoCodeAction.hasMissingCode(testFile));
+
+    PsiDocumentManager documentManager = PsiDocumentManager.getInstance(getProject());
+    Document document = documentManager.getDocument(service.getContainingFile());
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      document.setText(document.getText().replace("process(Repository repository)", "process(Repository repository, int count)"));
+      documentManager.commitDocument(document);
+    });
+
+    assertTrue(GenMockitoCodeAction.hasMissingCode(testFile));
+  }
+
+  public void testCheckingTheMissingCodeRecordsNoMetrics() {
+    addService();
+    PsiJavaFile testFile = (PsiJavaFile) myFixture.configureByText("ServiceTest.java", TEST_FILE_TEXT);
+    GenerationMetrics metrics = GenerationMetrics.getInstance();
+    metrics.setEnabled(true);
+    metrics.clear();
+
+    assertTrue(GenMockitoCodeAction.hasMissingCode(testFile));
+
+    assertEmpty(metrics.getPhaseStatistics());
+    assertEmpty(metrics.getCounters().keySet());
+  }
+
+  private PsiClass addService() {
+    return myFixture.addClass("""
+            package action;
+
+            public class Service {
+              private Repository repository;
+              private Money price;
+
+              public void process(Repository repository) {}
+            }
+            """);
+  }
+
+  private void generate(PsiJavaFile testFile) {
+    GenerationPlanApplier applier = new GenerationPlanApplier(JavaPsiFacade.getInstance(getProject()), GenerationPlanApplier.Mode.TEMPLATE);
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      List<PsiElement> generatedElements = applier.apply(testFile, new GenerationPlanner().plan(testFile));
+      new GeneratedCodeFormatter(getProject()).format(testFile, generatedElements);
+    });
+  }
+}
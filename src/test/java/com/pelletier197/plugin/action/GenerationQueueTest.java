@@ -0,0 +1,92 @@
+package com.pelletier197.plugin.action;
+
+import com.intellij.openapi.project.DumbServiceImpl;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the queue with the indexing simulated by the dumb mode of the test project. The background tasks are kept
+ * asynchronous, since the headless test application would otherwise run them on the EDT and never leave the dumb mode.
+ */
+public class GenerationQueueTest extends LightJavaCodeInsightFixtureTestCase {
+  private static final String ASYNCHRONOUS_TASKS_PROPERTY = "intellij.progress.task.ignoreHeadless";
+  private static final int TIMEOUT_SECONDS = 30;
+
+  private final List<String> generations = new ArrayList<>();
+  private GenerationQueue queue;
+  private PsiJavaFile firstTestFile;
+  private PsiJavaFile secondTestFile;
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    System.setProperty(ASYNCHRONOUS_TASKS_PROPERTY, "true");
+    queue = GenerationQueue.getInstance(getProject());
+    firstTestFile = (PsiJavaFile) myFixture.addFileToProject("queue/FirstTest.java", "package queue;\n\nclass FirstTest {\n}\n");
+    secondTestFile = (PsiJavaFile) myFixture.addFileToProject("queue/SecondTest.java", "package queue;\n\nclass SecondTest {\n}\n");
+    DumbServiceImpl.getInstance(getProject()).setDumb(true);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      DumbServiceImpl.getInstance(getProject()).setDumb(false);
+      queue.cancel();
+      System.clearProperty(ASYNCHRONOUS_TASKS_PROPERTY);
+    } catch (Throwable e) {
+      addSuppressedException(e);
+    } finally {
+      super.tearDown();
+    }
+  }
+
+  public void testGenerationsRunOnceIndexingCompletes() {
+    queue.enqueue(firstTestFile, file -> generations.add(file.getName()));
+    queue.enqueue(secondTestFile, file -> generations.add(file.getName()));
+    assertEmpty(generations);
+
+    DumbServiceImpl.getInstance(getProject()).setDumb(false);
+    waitForTheQueue();
+
+    assertEquals(List.of("FirstTest.java", "SecondTest.java"), generations);
+  }
+
+  public void testRequestingAQueuedFileAgainReplacesItsGeneration() {
+    queue.enqueue(firstTestFile, file -> generations.add("first request"));
+    queue.enqueue(secondTestFile, file -> generations.add(file.getName()));
+    queue.enqueue(firstTestFile, file -> generations.add("second request"));
+
+    DumbServiceImpl.getInstance(getProject()).setDumb(false);
+    waitForTheQueue();
+
+    assertEquals(List.of("second request", "SecondTest.java"), generations);
+  }
+
+  public void testCancellingDropsTheQueuedGenerations() {
+    queue.enqueue(firstTestFile, file -> generations.add(file.getName()));
+
+    queue.cancel();
+    assertFalse(queue.isWaiting());
+    queue.enqueue(secondTestFile, file -> generations.add(file.getName()));
+
+    DumbServiceImpl.getInstance(getProject()).setDumb(false);
+    waitForTheQueue();
+
+    assertEquals(List.of("SecondTest.java"), generations);
+  }
+
+  private void waitForTheQueue() {
+    PlatformTestUtil.waitWithEventsDispatching("The queued generations did not run", () -> !queue.isWaiting(), TIMEOUT_SECONDS);
+  }
+}
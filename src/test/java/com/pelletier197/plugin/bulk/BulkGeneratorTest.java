@@ -0,0 +1,128 @@
+package com.pelletier197.plugin.bulk;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbServiceImpl;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.intellij.util.TimeoutUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.Future;
+
+public class BulkGeneratorTest extends LightJavaCodeInsightFixtureTestCase {
+  private static final int TIMEOUT_MILLIS = 60_000;
+  private static final int INDEXING_MILLIS = 500;
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myFixture.addClass("package bulk;\npublic class Repository {}");
+    myFixture.addClass("package bulk;\npublic class Service {\n  private Repository repository;\n}");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      DumbServiceImpl.getInstance(getProject()).setDumb(false);
+    } catch (Throwable e) {
+      addSuppressedException(e);
+    } finally {
+      super.tearDown();
+    }
+  }
+
+  public void testCheckReportsTheFilesMissingCodeWithoutWritingThem() throws Exception {
+    List<VirtualFile> testFiles = List.of(addTestFile("ServiceTest"), addTestFile("RepositoryTest"), addBrokenTestFile());
+
+    BulkGenerationResult result = PlatformTestUtil.waitForFuture(check(testFiles), TIMEOUT_MILLIS);
+
+    assertEquals(2, result.count(BulkGenerationResult.Status.MISSING));
+    assertEquals(1, result.count(BulkGenerationResult.Status.FAILED));
+    assertEquals(0, result.count(BulkGenerationResult.Status.CHANGED));
+    assertEquals(testClassText("ServiceTest"), myFixture.getPsiManager().findFile(testFiles.get(0)).getText());
+  }
+
+  public void testGenerateWritesEveryFileAndReportsTheFailures() throws Exception {
+    List<VirtualFile> testFiles = List.of(addTestFile("ServiceTest"), addTestFile("RepositoryTest"), addBrokenTestFile());
+
+    BulkGenerationResult result = PlatformTestUtil.waitForFuture(generate(testFiles, new EmptyProgressIndicator()), TIMEOUT_MILLIS);
+
+    assertEquals(2, result.count(BulkGenerationResult.Status.CHANGED));
+    assertEquals(1, result.count(BulkGenerationResult.Status.FAILED));
+    BulkGenerationResult.FileResult failure = result.getFiles().get(2);
+    assertEquals(testFiles.get(2).getPath(), failure.getPath());
+    assertNotNull(failure.getError());
+    assertTrue(myFixture.getPsiManager().findFile(testFiles.get(0)).getText().contains("repository"));
+
+    BulkGenerationResult secondCheck = PlatformTestUtil.waitForFuture(check(testFiles), TIMEOUT_MILLIS);
+    assertEquals(2, secondCheck.count(BulkGenerationResult.Status.UNCHANGED));
+    assertEquals(1, secondCheck.count(BulkGenerationResult.Status.FAILED));
+  }
+
+  public void testGenerationInterruptedByIndexingIsRetriedOnceItCompletes() throws Exception {
+    VirtualFile testFile = addTestFile("ServiceTest");
+    DumbServiceImpl.getInstance(getProject()).setDumb(true);
+
+    Future<BulkGenerationResult> future = generate(List.of(testFile), new EmptyProgressIndicator());
+    TimeoutUtil.sleep(INDEXING_MILLIS);
+    PlatformTestUtil.dispatchAllInvocationEventsInIdeEventQueue();
+    assertFalse(future.isDone());
+
+    DumbServiceImpl.getInstance(getProject()).setDumb(false);
+    BulkGenerationResult result = PlatformTestUtil.waitForFuture(future, TIMEOUT_MILLIS);
+
+    assertFalse(result.isCancelled());
+    assertEquals(1, result.count(BulkGenerationResult.Status.CHANGED));
+  }
+
+  public void testCancellingStopsWaitingForIndexing() throws Exception {
+    VirtualFile testFile = addTestFile("ServiceTest");
+    DumbServiceImpl.getInstance(getProject()).setDumb(true);
+    ProgressIndicator indicator = new EmptyProgressIndicator();
+
+    Future<BulkGenerationResult> future = generate(List.of(testFile), indicator);
+    TimeoutUtil.sleep(INDEXING_MILLIS);
+    indicator.cancel();
+    BulkGenerationResult result = PlatformTestUtil.waitForFuture(future, TIMEOUT_MILLIS);
+
+    assertTrue(result.isCancelled());
+    assertEquals(0, result.count(BulkGenerationResult.Status.CHANGED));
+  }
+
+  private VirtualFile addTestFile(String name) {
+    return myFixture.addFileToProject("bulk/" + name + ".java", testClassText(name)).getVirtualFile();
+  }
+
+  /**
+   * @return a test file without a test class, which fails to be analysed.
+   */
+  private VirtualFile addBrokenTestFile() {
+    return myFixture.addFileToProject("bulk/BrokenTest.java", "package bulk;\n\ninterface BrokenTest {\n}\n").getVirtualFile();
+  }
+
+  private static String testClassText(String name) {
+    return "package bulk;\n\nclass " + name + " {\n}\n";
+  }
+
+  private Future<BulkGenerationResult> check(List<VirtualFile> files) {
+    ProgressIndicator indicator = new EmptyProgressIndicator();
+    return ApplicationManager.getApplication().executeOnPooledThread(() -> ProgressManager.getInstance().runProcess(
+            () -> new BulkGenerator(getProject()).check(files, indicator), indicator));
+  }
+
+  private Future<BulkGenerationResult> generate(List<VirtualFile> files, ProgressIndicator indicator) {
+    return ApplicationManager.getApplication().executeOnPooledThread(() -> ProgressManager.getInstance().runProcess(
+            () -> new BulkGenerator(getProject()).generate(files, indicator), indicator));
+  }
+}
@@ -0,0 +1,54 @@
+package com.pelletier197.plugin.bulk;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Ensures that only the concrete production classes without tests are selected for creation, and that classes without
+ * a test source root are reported instead of being created next to the production code.
+ */
+public class TestFileCreatorTest extends LightJavaCodeInsightFixtureTestCase {
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  public void testOnlyConcreteClassesWithoutTestsAreCollected() {
+    VirtualFile root = addClasses();
+
+    List<String> untestedClasses = TestFileCreator.collectUntestedClasses(getProject(), new VirtualFile[]{root});
+
+    assertEquals(List.of("creation.Repository"), untestedClasses);
+  }
+
+  public void testClassesWithoutTestSourceRootAreReportedAsFailed() throws Exception {
+    addClasses();
+
+    Future<BulkGenerationResult> future = ApplicationManager.getApplication().executeOnPooledThread(
+            () -> new TestFileCreator(getProject()).create(List.of("creation.Repository"), new EmptyProgressIndicator()));
+    BulkGenerationResult result = PlatformTestUtil.waitForFuture(future, 60_000);
+
+    assertEquals(0, result.count(BulkGenerationResult.Status.CREATED));
+    assertEquals(1, result.count(BulkGenerationResult.Status.FAILED));
+    assertEquals("No test source root found", result.getFiles().get(0).getError());
+  }
+
+  private VirtualFile addClasses() {
+    myFixture.addClass("package creation;\npublic class Repository {}");
+    myFixture.addClass("package creation;\npublic interface Gateway {}");
+    myFixture.addClass("package creation;\npublic abstract class Base {}");
+    myFixture.addClass("package creation;\npublic enum Status { ACTIVE }");
+    myFixture.addClass("package creation;\npublic class Service {\n  private Repository repository;\n}");
+    return myFixture.addClass("package creation;\nclass ServiceTest {\n  Service underTest;\n}")
+            .getContainingFile().getVirtualFile().getParent();
+  }
+}
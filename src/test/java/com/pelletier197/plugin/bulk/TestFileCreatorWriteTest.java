@@ -0,0 +1,91 @@
+package com.pelletier197.plugin.bulk;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.command.CommandEvent;
+import com.intellij.openapi.command.CommandListener;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.roots.ContentEntry;
+import com.intellij.openapi.roots.ModifiableRootModel;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.pom.java.LanguageLevel;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jps.model.java.JavaSourceRootType;
+
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ensures that the test files are created in the test source root of the module, in the package of the tested class
+ * and filled with the generated code, all in a single command.
+ */
+public class TestFileCreatorWriteTest extends LightJavaCodeInsightFixtureTestCase {
+  private static final String TEST_ROOT_NAME = "test";
+
+  private static final LightProjectDescriptor WITH_TEST_ROOT = new ProjectDescriptor(LanguageLevel.JDK_17) {
+    @Override
+    public void configureModule(@NotNull Module module, @NotNull ModifiableRootModel model, @NotNull ContentEntry contentEntry) {
+      super.configureModule(module, model, contentEntry);
+      VirtualFile testRoot = createSourceRoot(module, TEST_ROOT_NAME);
+      model.addContentEntry(testRoot).addSourceFolder(testRoot, true);
+    }
+  };
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return WITH_TEST_ROOT;
+  }
+
+  public void testTheTestFilesAreCreatedFilledInTheTestRootInASingleCommand() throws Exception {
+    myFixture.addClass("package creation;\npublic class Repository {}");
+    myFixture.addClass("package creation;\npublic class Service {\n  private Repository repository;\n}");
+    AtomicInteger commands = new AtomicInteger();
+    getProject().getMessageBus().connect(getTestRootDisposable()).subscribe(CommandListener.TOPIC, new CommandListener() {
+      @Override
+      public void commandFinished(@NotNull CommandEvent event) {
+        if (TestFileCreator.COMMAND_NAME.equals(event.getCommandName())) {
+          commands.incrementAndGet();
+        }
+      }
+    });
+
+    Future<BulkGenerationResult> future = ApplicationManager.getApplication().executeOnPooledThread(() ->
+            new TestFileCreator(getProject()).create(List.of("creation.Service", "creation.Repository"), new EmptyProgressIndicator()));
+    BulkGenerationResult result = PlatformTestUtil.waitForFuture(future, 60_000);
+
+    assertEquals(2, result.count(BulkGenerationResult.Status.CREATED));
+    assertEquals(1, commands.get());
+
+    VirtualFile testFile = getTestRoot().findFileByRelativePath("creation/ServiceTest.java");
+    assertNotNull(testFile);
+    assertEquals(testFile.getPath(), result.getFiles().get(0).getPath());
+    PsiJavaFile testPsiFile = (PsiJavaFile) myFixture.getPsiManager().findFile(testFile);
+    assertEquals("creation", testPsiFile.getPackageName());
+    assertEquals("ServiceTest", testPsiFile.getClasses()[0].getName());
+    assertNotNull(testPsiFile.getClasses()[0].findFieldByName("repository", false));
+  }
+
+  public void testTheTestFileOfAClassOfTheDefaultPackageIsCreatedAtTheRootOfTheTests() throws Exception {
+    myFixture.addClass("public class Clock {}");
+
+    Future<BulkGenerationResult> future = ApplicationManager.getApplication().executeOnPooledThread(() ->
+            new TestFileCreator(getProject()).create(List.of("Clock"), new EmptyProgressIndicator()));
+    BulkGenerationResult result = PlatformTestUtil.waitForFuture(future, 60_000);
+
+    assertEquals(1, result.count(BulkGenerationResult.Status.CREATED));
+    VirtualFile testFile = getTestRoot().findChild("ClockTest.java");
+    assertNotNull(testFile);
+    assertEquals(testFile.getPath(), result.getFiles().get(0).getPath());
+    assertFalse(result.getFiles().get(0).getPath().contains("//"));
+  }
+
+  private VirtualFile getTestRoot() {
+    return ModuleRootManager.getInstance(getModule()).getSourceRoots(JavaSourceRootType.TEST_SOURCE).get(0);
+  }
+}
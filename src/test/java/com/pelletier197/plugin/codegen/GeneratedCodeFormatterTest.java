@@ -0,0 +1,57 @@
+package com.pelletier197.plugin.codegen;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.pelletier197.plugin.codegen.plan.GenerationPlan;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Ensures that the generated code is shortened and reformatted, while the code written by the user is left as is.
+ */
+public class GeneratedCodeFormatterTest extends LightJavaCodeInsightFixtureTestCase {
+  private static final String USER_CODE = "void   existing( ){int   value=1;}";
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  public void testGeneratedCodeIsShortenedAndReformattedOnly() {
+    myFixture.addClass("package formatter.repository;\npublic class Repository {}");
+    myFixture.addClass("package formatter;\nimport formatter.repository.Repository;\npublic class Service {\n  private Repository repository;\n}");
+    PsiJavaFile testFile = (PsiJavaFile) myFixture.configureByText("ServiceTest.java",
+            "package formatter;\n\nclass ServiceTest {\n  " + USER_CODE + "\n}\n");
+
+    GenerationPlan plan = new GenerationPlanner().plan(testFile);
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      GenerationPlanApplier applier = new GenerationPlanApplier(JavaPsiFacade.getInstance(getProject()));
+      new GeneratedCodeFormatter(getProject()).format(testFile, applier.apply(testFile, plan));
+    });
+
+    String text = testFile.getText();
+    assertTrue(text, text.contains("import formatter.repository.Repository;"));
+    assertFalse(text, text.contains("formatter.repository.Repository repository"));
+    assertTrue(text, text.contains("private Repository repository;"));
+    assertTrue(text, text.contains(USER_CODE));
+  }
+
+  public void testACopyIsFormattedInAReadActionLikeThePhysicalFile() {
+    myFixture.addClass("package formatter.repository;\npublic class Repository {}");
+    myFixture.addClass("package formatter;\nimport formatter.repository.Repository;\npublic class Service {\n  private Repository repository;\n  public void process(Repository other) {}\n}");
+    PsiJavaFile testFile = (PsiJavaFile) myFixture.configureByText("ServiceTest.java",
+            "package formatter;\n\nclass ServiceTest {\n  " + USER_CODE + "\n}\n");
+    GenerationPlan plan = new GenerationPlanner().plan(testFile);
+    GenerationPlanApplier applier = new GenerationPlanApplier(JavaPsiFacade.getInstance(getProject()));
+
+    PsiJavaFile copy = (PsiJavaFile) testFile.copy();
+    ReadAction.run(() -> new GeneratedCodeFormatter(getProject()).formatCopy(copy, applier.apply(copy, plan)));
+    WriteCommandAction.runWriteCommandAction(getProject(), () ->
+            new GeneratedCodeFormatter(getProject()).format(testFile, applier.apply(testFile, plan)));
+
+    assertEquals(testFile.getText(), copy.getText());
+  }
+}
@@ -0,0 +1,93 @@
+package com.pelletier197.plugin.codegen;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.pelletier197.plugin.codegen.naming.NamingEngine;
+import com.pelletier197.plugin.codegen.plan.GenerationPlan;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Checks that {@link GenerationPlanApplier.Mode#TEMPLATE} and {@link GenerationPlanApplier.Mode#PER_ELEMENT} write
+ * the same test file. The time spent by each mode is compared by the <code>GenerationPlanApplierBenchmark</code>.
+ */
+public class GenerationPlanApplierModeTest extends LightJavaCodeInsightFixtureTestCase {
+  private static final int METHOD_COUNT = 20;
+
+  private static final String TEST_FILE_NAME = "FacadeTest.java";
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myFixture.addClass("package bench;\npublic enum Status { ACTIVE, INACTIVE }");
+    myFixture.addClass("package bench;\npublic class Repository {}");
+    myFixture.addClass(createUnderTestClass());
+  }
+
+  public void testTemplateModeWritesTheSameFileAsPerElementModeForAnEmptyTestClass() {
+    String testFileText = "package bench;\n\nclass FacadeTest {\n}\n";
+
+    assertEquals(generate(testFileText, GenerationPlanApplier.Mode.PER_ELEMENT), generate(testFileText, GenerationPlanApplier.Mode.TEMPLATE));
+  }
+
+  public void testTemplateModeWritesTheSameFileAsPerElementModeForATestClassWithExistingMembers() {
+    String testFileText = "package bench;\n\n" +
+            "class FacadeTest {\n" +
+            "  private int attempts;\n\n" +
+            "  void helper() {\n" +
+            "  }\n\n" +
+            "  class " + NamingEngine.whenClassName("process0") + " {\n" +
+            "    private int retries;\n\n" +
+            "    void check() {\n" +
+            "    }\n" +
+            "  }\n" +
+            "}\n";
+
+    String perElementText = generate(testFileText, GenerationPlanApplier.Mode.PER_ELEMENT);
+    String templateText = generate(testFileText, GenerationPlanApplier.Mode.TEMPLATE);
+
+    assertEquals(perElementText, templateText);
+    assertTrue(templateText.contains("void helper()"));
+    assertTrue(templateText.contains("void check()"));
+  }
+
+  /**
+   * @return the text of the test file once the plan is applied in the given mode and the generated code formatted.
+   */
+  private String generate(String testFileText, GenerationPlanApplier.Mode mode) {
+    PsiJavaFile testFile = (PsiJavaFile) myFixture.configureByText(TEST_FILE_NAME, testFileText);
+    GenerationPlan plan = new GenerationPlanner().plan(testFile);
+    GenerationPlanApplier applier = new GenerationPlanApplier(JavaPsiFacade.getInstance(getProject()), mode);
+
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      List<PsiElement> generatedElements = applier.apply(testFile, plan);
+      new GeneratedCodeFormatter(getProject()).format(testFile, generatedElements);
+    });
+    return testFile.getText();
+  }
+
+  private static String createUnderTestClass() {
+    StringBuilder builder = new StringBuilder("package bench;\n\npublic class Facade {\n")
+            .append("  private Repository repository;\n")
+            .append("  private String name;\n");
+    for (int i = 0; i < METHOD_COUNT; i++) {
+      builder.append("  public void process").append(i)
+              .append("(Repository repository").append(i)
+              .append(", String label").append(i)
+              .append(", Status status").append(i)
+              .append(", int count").append(i)
+              .append(") {}\n");
+    }
+    return builder.append("}\n").toString();
+  }
+}
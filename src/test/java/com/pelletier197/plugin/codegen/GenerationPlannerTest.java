@@ -0,0 +1,88 @@
+package com.pelletier197.plugin.codegen;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.pelletier197.plugin.codegen.plan.GenerationPlan;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Ensures that a plan only becomes stale when its test file or the Java structure of the project changes.
+ */
+public class GenerationPlannerTest extends LightJavaCodeInsightFixtureTestCase {
+
+  private PsiClass other;
+  private PsiJavaFile testFile;
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    other = myFixture.addClass("package planner;\npublic class Other {\n  public int compute() {\n    return 1;\n  }\n}");
+    myFixture.addClass("package planner;\npublic class Service {\n  private Other other;\n}");
+    testFile = (PsiJavaFile) myFixture.configureByText("ServiceTest.java", "package planner;\n\nclass ServiceTest {\n}\n");
+  }
+
+  public void testPlanIsUpToDateAfterAnEditInsideTheCodeBlockOfAnotherFile() {
+    GenerationPlan plan = new GenerationPlanner().plan(testFile);
+
+    replace(other.getContainingFile(), "return 1;", "return 2;");
+
+    assertTrue(GenerationPlanner.isUpToDate(testFile, plan));
+  }
+
+  public void testPlanIsStaleAfterAnEditOfTheTestFile() {
+    GenerationPlan plan = new GenerationPlanner().plan(testFile);
+
+    replace(testFile, "class ServiceTest {", "class ServiceTest {\n  int count;");
+
+    assertFalse(GenerationPlanner.isUpToDate(testFile, plan));
+  }
+
+  public void testPlanIsStaleAfterAStructuralChangeOfAnotherFile() {
+    GenerationPlan plan = new GenerationPlanner().plan(testFile);
+
+    replace(other.getContainingFile(), "public int compute() {", "public void added() {\n  }\n\n  public int compute() {");
+
+    assertFalse(GenerationPlanner.isUpToDate(testFile, plan));
+  }
+
+  public void testPlanIsUpToDateAfterTheExpectedStructuralChangesOfAnotherFile() {
+    GenerationPlan plan = new GenerationPlanner().plan(testFile);
+    long javaStructureCount = GenerationPlanner.getJavaStructureCount(getProject());
+
+    replace(other.getContainingFile(), "public int compute() {", "public void added() {\n  }\n\n  public int compute() {");
+
+    long ownJavaStructureChanges = GenerationPlanner.getJavaStructureCount(getProject()) - javaStructureCount;
+    assertTrue(GenerationPlanner.isUpToDate(testFile, plan, ownJavaStructureChanges));
+  }
+
+  public void testPlanIsStaleAfterAnUnexpectedStructuralChangeOfAnotherFile() {
+    GenerationPlan plan = new GenerationPlanner().plan(testFile);
+    long javaStructureCount = GenerationPlanner.getJavaStructureCount(getProject());
+    replace(other.getContainingFile(), "public int compute() {", "public void added() {\n  }\n\n  public int compute() {");
+    long ownJavaStructureChanges = GenerationPlanner.getJavaStructureCount(getProject()) - javaStructureCount;
+
+    replace(other.getContainingFile(), "public void added() {", "public void renamed() {");
+
+    assertFalse(GenerationPlanner.isUpToDate(testFile, plan, ownJavaStructureChanges));
+  }
+
+  private void replace(PsiFile file, String oldText, String newText) {
+    PsiDocumentManager documentManager = PsiDocumentManager.getInstance(getProject());
+    Document document = documentManager.getDocument(file);
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      document.setText(document.getText().replace(oldText, newText));
+      documentManager.commitDocument(document);
+    });
+  }
+}
@@ -0,0 +1,63 @@
+package com.pelletier197.plugin.codegen;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.LoggedErrorProcessor;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Ensures that the preview is computed in a background read action without modifying the test file, and without the
+ * errors logged by the platform when a file is formatted outside of a write action.
+ */
+public class GenerationPreviewTest extends LightJavaCodeInsightFixtureTestCase {
+  private static final String TEST_FILE_TEXT = "package preview;\n\nclass ServiceTest {\n}\n";
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  public void testPreviewShowsTheGeneratedCodeWithoutModifyingTheTestFile() throws Exception {
+    myFixture.addClass("package preview;\npublic class Repository {}");
+    myFixture.addClass("package preview;\npublic class Service {\n  private Repository repository;\n  public void process(Repository other) {}\n}");
+    PsiJavaFile testFile = (PsiJavaFile) myFixture.configureByText("ServiceTest.java", TEST_FILE_TEXT);
+
+    List<Throwable> loggedErrors = Collections.synchronizedList(new ArrayList<>());
+    AtomicReference<GenerationPreview> preview = new AtomicReference<>();
+    LoggedErrorProcessor.executeWith(new LoggedErrorProcessor() {
+      @Override
+      public @NotNull Set<Action> processError(@NotNull String category, @NotNull String message, String @NotNull [] details, @Nullable Throwable t) {
+        loggedErrors.add(t == null ? new AssertionError(message) : t);
+        return Action.NONE;
+      }
+    }, () -> {
+      Future<GenerationPreview> future = ReadAction.nonBlocking(() -> {
+                assertFalse(ApplicationManager.getApplication().isDispatchThread());
+                return GenerationPreview.compute(testFile);
+              })
+              .submit(AppExecutorUtil.getAppExecutorService());
+      preview.set(PlatformTestUtil.waitForFuture(future, 60_000));
+    });
+
+    assertEmpty(loggedErrors);
+    assertFalse(preview.get().isEmpty());
+    assertEquals(TEST_FILE_TEXT, preview.get().getTextBefore());
+    assertEquals(TEST_FILE_TEXT, testFile.getText());
+    assertTrue(preview.get().getTextAfter().contains("Repository repository;"));
+    assertTrue(preview.get().getTextAfter().contains("Service underTest;"));
+    assertTrue(preview.get().getTextAfter().contains("class WhenProcessing"));
+  }
+}
@@ -0,0 +1,79 @@
+package com.pelletier197.plugin.codegen;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiImportStatementBase;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.pelletier197.plugin.codegen.plan.StaticImportPlan;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Ensures that the added imports are placed where the import layout of the project expects them, so that optimizing
+ * the imports afterwards does not move them.
+ */
+public class ImportOrganizerTest extends LightJavaCodeInsightFixtureTestCase {
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  public void testImportsAreAddedAtTheirPositionInTheImportLayout() {
+    myFixture.addClass("package org.acme;\npublic class Alpha {}");
+    myFixture.addClass("package com.zeta;\npublic class Omega {}");
+    myFixture.addClass("package org.acme;\npublic class Checks {\n  public static void check() {}\n}");
+    myFixture.addClass("package com.zeta;\npublic class Asserts {\n  public static void verify() {}\n}");
+    PsiJavaFile testFile = (PsiJavaFile) myFixture.configureByText("LayoutTest.java", """
+            package layout;
+
+            import java.util.List;
+
+            import static java.util.Objects.requireNonNull;
+
+            class LayoutTest {
+              List<String> names;
+              Alpha alpha;
+              Omega omega;
+
+              void test() {
+                requireNonNull(names);
+                check();
+                verify();
+              }
+            }
+            """);
+
+    WriteCommandAction.runWriteCommandAction(getProject(), () ->
+            new ImportOrganizer(JavaPsiFacade.getInstance(getProject())).addImports(testFile,
+                    List.of("org.acme.Alpha", "com.zeta.Omega"),
+                    List.of(new StaticImportPlan("org.acme.Checks", "check"), new StaticImportPlan("com.zeta.Asserts", "verify"))));
+    List<String> addedImports = getImports(testFile);
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> JavaCodeStyleManager.getInstance(getProject()).optimizeImports(testFile));
+
+    assertEquals(6, addedImports.size());
+    assertEquals(getImports(testFile), addedImports);
+  }
+
+  public void testImportsOfTheSamePackageOrAlreadyImportedAreSkipped() {
+    myFixture.addClass("package org.acme;\npublic class Alpha {}");
+    myFixture.addClass("package layout;\npublic class Beta {}");
+    PsiJavaFile testFile = (PsiJavaFile) myFixture.configureByText("SkippedTest.java",
+            "package layout;\n\nimport org.acme.Alpha;\n\nclass SkippedTest {}\n");
+
+    WriteCommandAction.runWriteCommandAction(getProject(), () ->
+            new ImportOrganizer(JavaPsiFacade.getInstance(getProject())).addImports(testFile,
+                    List.of("org.acme.Alpha", "layout.Beta", "java.lang.String", "org.acme.Missing"), List.of()));
+
+    assertEquals(List.of("import org.acme.Alpha;"), getImports(testFile));
+  }
+
+  private static List<String> getImports(PsiJavaFile psiJavaFile) {
+    return Stream.of(psiJavaFile.getImportList().getAllImportStatements()).map(PsiImportStatementBase::getText).toList();
+  }
+}
@@ -0,0 +1,109 @@
+package com.pelletier197.plugin.codegen;
+
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.pelletier197.plugin.codegen.plan.FieldPlan;
+import com.pelletier197.plugin.codegen.plan.GenerationPlan;
+import com.pelletier197.plugin.settings.MockitoGenSettings;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Ensures that only the dependencies injected by Mockito are mocked when enabled: the parameters of the biggest
+ * constructor, or else the non-final fields.
+ */
+public class InjectedMocksOnlyTest extends LightJavaCodeInsightFixtureTestCase {
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myFixture.addClass("package injection;\npublic class Repository {}");
+    myFixture.addClass("package injection;\npublic class Gateway {}");
+    myFixture.addClass("package injection;\npublic class Cache {}");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      MockitoGenSettings.getInstance(getProject()).setInjectedMocksOnly(false);
+    } finally {
+      super.tearDown();
+    }
+  }
+
+  public void testAllFieldsAreMockedByDefault() {
+    PsiJavaFile testFile = addConstructorInjectedService();
+
+    assertSameElements(mockNames(testFile), "repository", "cache", "gateway", "underTest");
+  }
+
+  public void testOnlyTheParametersOfTheBiggestConstructorAreMocked() {
+    MockitoGenSettings.getInstance(getProject()).setInjectedMocksOnly(true);
+    PsiJavaFile testFile = addConstructorInjectedService();
+
+    assertSameElements(mockNames(testFile), "repository", "remoteGateway", "underTest");
+  }
+
+  public void testOnlyTheNonFinalFieldsAreMockedWithoutConstructorParameters() {
+    MockitoGenSettings.getInstance(getProject()).setInjectedMocksOnly(true);
+    myFixture.addClass("""
+            package injection;
+
+            public class FieldService {
+              private final Cache cache = new Cache();
+              private Repository repository;
+              private Gateway gateway;
+
+              public void setGateway(Gateway gateway) {
+                this.gateway = gateway;
+              }
+            }
+            """);
+    PsiJavaFile testFile = (PsiJavaFile) myFixture.configureByText("FieldServiceTest.java", "package injection;\n\nclass FieldServiceTest {\n}\n");
+
+    assertSameElements(mockNames(testFile), "repository", "gateway", "underTest");
+  }
+
+  public void testTogglingTheSettingMakesThePlansStale() {
+    PsiJavaFile testFile = addConstructorInjectedService();
+    GenerationPlan plan = new GenerationPlanner().plan(testFile);
+    assertTrue(GenerationPlanner.isUpToDate(testFile, plan));
+
+    MockitoGenSettings.getInstance(getProject()).setInjectedMocksOnly(true);
+
+    assertFalse(GenerationPlanner.isUpToDate(testFile, plan));
+  }
+
+  private PsiJavaFile addConstructorInjectedService() {
+    myFixture.addClass("""
+            package injection;
+
+            public class ConstructorService {
+              private final Repository repository;
+              private final Cache cache = new Cache();
+              private Gateway gateway;
+
+              public ConstructorService(Repository repository) {
+                this(repository, null);
+              }
+
+              public ConstructorService(Repository repository, Gateway remoteGateway) {
+                this.repository = repository;
+                this.gateway = remoteGateway;
+              }
+            }
+            """);
+    return (PsiJavaFile) myFixture.configureByText("ConstructorServiceTest.java", "package injection;\n\nclass ConstructorServiceTest {\n}\n");
+  }
+
+  private static List<String> mockNames(PsiJavaFile testFile) {
+    return new GenerationPlanner().plan(testFile).getTestClass().getFields().stream().map(FieldPlan::getName).toList();
+  }
+}
@@ -0,0 +1,88 @@
+package com.pelletier197.plugin.codegen;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.pelletier197.plugin.codegen.plan.ClassPlan;
+import com.pelletier197.plugin.codegen.plan.FieldPlan;
+import com.pelletier197.plugin.codegen.plan.GenerationPlan;
+import com.pelletier197.plugin.codegen.value.ValueProviderRegistry;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Ensures that the random values of the generated constants only depend on the test class and on the name of the
+ * constants, so that the same code is generated on every run and by concurrent generations.
+ */
+public class ReproducibleGenerationTest extends LightJavaCodeInsightFixtureTestCase {
+  private static final int CONCURRENT_GENERATIONS = 8;
+
+  private PsiJavaFile testFile;
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myFixture.addClass("""
+            package reproducible;
+
+            public class Service {
+              private int count;
+              private long total;
+              private Integer limit;
+              private Long offset;
+              private double ratio;
+
+              public void process(int attempts, double threshold, Long identifier) {
+              }
+            }
+            """);
+    testFile = (PsiJavaFile) myFixture.configureByText("ServiceTest.java", "package reproducible;\n\nclass ServiceTest {\n}\n");
+  }
+
+  public void testValuesAreDerivedFromTheTestClassAndTheConstantName() {
+    String expected = "private static final int COUNT = " + ValueProviderRegistry.seededRandom("reproducible.ServiceTest", "COUNT").nextInt(100) + ";";
+
+    assertTrue(describe(new GenerationPlanner().plan(testFile)).contains(expected));
+  }
+
+  public void testSameCodeIsGeneratedOnEveryRun() {
+    assertEquals(describe(new GenerationPlanner().plan(testFile)), describe(new GenerationPlanner().plan(testFile)));
+  }
+
+  public void testSameCodeIsGeneratedByConcurrentGenerations() throws Exception {
+    String expected = describe(new GenerationPlanner().plan(testFile));
+
+    List<Future<String>> futures = new ArrayList<>();
+    for (int i = 0; i < CONCURRENT_GENERATIONS; i++) {
+      futures.add(ReadAction.nonBlocking(() -> describe(new GenerationPlanner().plan(testFile)))
+              .submit(AppExecutorUtil.getAppExecutorService()));
+    }
+
+    for (Future<String> future : futures) {
+      assertEquals(expected, PlatformTestUtil.waitForFuture(future, 60_000));
+    }
+  }
+
+  private static String describe(GenerationPlan plan) {
+    StringBuilder builder = new StringBuilder();
+    plan.getTestClass().getFields().forEach(field -> builder.append(field.getText()).append('\n'));
+    for (ClassPlan nestedClass : plan.getNestedClasses()) {
+      builder.append(nestedClass.getName()).append('\n');
+      for (FieldPlan field : nestedClass.getFields()) {
+        builder.append("  ").append(field.getText()).append('\n');
+      }
+    }
+    return builder.toString();
+  }
+}
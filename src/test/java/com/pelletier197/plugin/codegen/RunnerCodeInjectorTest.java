@@ -0,0 +1,46 @@
+package com.pelletier197.plugin.codegen;
+
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.pelletier197.plugin.codegen.plan.GenerationPlan;
+import org.jetbrains.annotations.NotNull;
+
+public class RunnerCodeInjectorTest extends LightJavaCodeInsightFixtureTestCase {
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myFixture.addClass("package runner;\npublic class Service {}");
+  }
+
+  public void testDoesNotAddTheRunnerWhenExtendWithIsResolved() {
+    myFixture.addClass("package org.junit.jupiter.api.extension;\npublic @interface ExtendWith { Class<?>[] value(); }");
+
+    assertTrue(plan("import org.junit.jupiter.api.extension.ExtendWith;\n\n@ExtendWith(Object.class)\n").getTestClassAnnotations().isEmpty());
+  }
+
+  public void testDoesNotAddTheRunnerWhenExtendWithDoesNotResolve() {
+    assertTrue(plan("import org.junit.jupiter.api.extension.ExtendWith;\n\n@ExtendWith(Object.class)\n").getTestClassAnnotations().isEmpty());
+  }
+
+  public void testAddsTheRunnerWhenAnotherExtendWithIsResolved() {
+    myFixture.addClass("package other;\npublic @interface ExtendWith { Class<?>[] value(); }");
+
+    assertEquals(1, plan("import other.ExtendWith;\n\n@ExtendWith(Object.class)\n").getTestClassAnnotations().size());
+  }
+
+  public void testAddsTheRunnerWithoutExtendWith() {
+    assertEquals(1, plan("").getTestClassAnnotations().size());
+  }
+
+  private GenerationPlan plan(String header) {
+    PsiJavaFile testFile = (PsiJavaFile) myFixture.configureByText("ServiceTest.java", "package runner;\n\n" + header + "class ServiceTest {\n}\n");
+    return new GenerationPlanner().plan(testFile);
+  }
+}
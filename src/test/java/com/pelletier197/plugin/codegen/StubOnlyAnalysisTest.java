@@ -0,0 +1,67 @@
+package com.pelletier197.plugin.codegen;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.impl.PsiManagerEx;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.pelletier197.plugin.codegen.plan.ClassPlan;
+import com.pelletier197.plugin.codegen.plan.FieldPlan;
+import com.pelletier197.plugin.codegen.plan.GenerationPlan;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Ensures that the class under test is analysed from its stubs only, without loading its AST.
+ */
+public class StubOnlyAnalysisTest extends LightJavaCodeInsightFixtureTestCase {
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  public void testAnalysisDoesNotLoadTheAstOfTheClassUnderTest() {
+    myFixture.addClass("package stub;\npublic enum Status { ACTIVE, INACTIVE }");
+    myFixture.addClass("package stub;\npublic class Repository {}");
+    VirtualFile underTestFile = myFixture.addFileToProject("stub/Service.java", """
+            package stub;
+
+            import java.util.List;
+            import java.util.UUID;
+
+            public class Service {
+              private static final String CONSTANT = "constant";
+              private final Repository repository;
+              private final Status status;
+              private final List<UUID> identifiers;
+
+              public Service(Repository repository, Status status, List<UUID> identifiers) {
+                this.repository = repository;
+                this.status = status;
+                this.identifiers = identifiers;
+              }
+
+              public void process(Repository other, String name, int count) {
+              }
+            }
+            """).getVirtualFile();
+    PsiJavaFile testFile = (PsiJavaFile) myFixture.configureByText("ServiceTest.java", "package stub;\n\nclass ServiceTest {\n}\n");
+
+    PsiManagerEx psiManager = PsiManagerEx.getInstanceEx(getProject());
+    psiManager.dropPsiCaches();
+    psiManager.setAssertOnFileLoadingFilter(file -> file.equals(underTestFile), getTestRootDisposable());
+
+    GenerationPlan plan = new GenerationPlanner().plan(testFile);
+
+    assertSameElements(fieldNames(plan.getTestClass()), "repository", "STATUS", "UUID_VALUE", "underTest");
+    assertEquals(1, plan.getNestedClasses().size());
+    assertEquals("WhenProcessing", plan.getNestedClasses().get(0).getName());
+    assertSameElements(fieldNames(plan.getNestedClasses().get(0)), "other", "NAME", "COUNT");
+  }
+
+  private static List<String> fieldNames(ClassPlan classPlan) {
+    return classPlan.getFields().stream().map(FieldPlan::getName).toList();
+  }
+}
@@ -0,0 +1,156 @@
+package com.pelletier197.plugin.codegen.analysis;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.pelletier197.plugin.codegen.GenerationPlanner;
+import com.pelletier197.plugin.codegen.plan.FieldPlan;
+import com.pelletier197.plugin.codegen.plan.GenerationPlan;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Ensures that the persisted analyses are reused while the class under test and its dependencies are unchanged, and
+ * that they produce the same plans as a fresh analysis.
+ */
+public class AnalysisCacheTest extends LightJavaCodeInsightFixtureTestCase {
+
+  private AnalysisCache cache;
+  private GenerationPlanner planner;
+  private PsiClass repository;
+  private PsiJavaFile testFile;
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    cache = AnalysisCache.getInstance();
+    cache.clear();
+    planner = new GenerationPlanner().withAnalysisCache(cache);
+
+    myFixture.addClass("package cache;\npublic enum Status { ACTIVE, INACTIVE }");
+    repository = myFixture.addClass("package cache;\npublic class Repository {}");
+    myFixture.addClass("""
+            package cache;
+
+            import java.util.List;
+            import java.util.UUID;
+
+            public class Service {
+              private final Repository repository;
+              private final Status status;
+              private final List<UUID> identifiers;
+
+              public Service(Repository repository, Status status, List<UUID> identifiers) {
+                this.repository = repository;
+                this.status = status;
+                this.identifiers = identifiers;
+              }
+
+              public void process(Repository other, String name, int count) {
+              }
+            }
+            """);
+    testFile = (PsiJavaFile) myFixture.configureByText("ServiceTest.java", "package cache;\n\nclass ServiceTest {\n}\n");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      cache.clear();
+    } finally {
+      super.tearDown();
+    }
+  }
+
+  public void testCachedAnalysisProducesTheSamePlanAsAFreshAnalysis() {
+    long misses = cache.getMissCount();
+    long hits = cache.getHitCount();
+
+    GenerationPlan analysed = planner.plan(testFile);
+    GenerationPlan cached = planner.plan(testFile);
+
+    assertEquals(misses + 1, cache.getMissCount());
+    assertEquals(hits + 1, cache.getHitCount());
+    assertEquals(describe(new GenerationPlanner().plan(testFile)), describe(analysed));
+    assertEquals(describe(analysed), describe(cached));
+  }
+
+  public void testAnalysisIsMadeAgainWhenADependencyChanges() {
+    planner.plan(testFile);
+    assertSameElements(fieldNames(planner.plan(testFile)), "repository", "STATUS", "UUID_VALUE", "underTest");
+
+    long misses = cache.getMissCount();
+    PsiDocumentManager documentManager = PsiDocumentManager.getInstance(getProject());
+    Document document = documentManager.getDocument(repository.getContainingFile());
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      document.setText("package cache;\npublic final class Repository {}");
+      documentManager.commitDocument(document);
+    });
+
+    assertSameElements(fieldNames(planner.plan(testFile)), "STATUS", "UUID_VALUE", "underTest");
+    assertEquals(misses + 1, cache.getMissCount());
+  }
+
+  public void testAnalysisIsMadeAgainWhenASuperClassWithoutFieldsGainsOne() {
+    PsiClass level0 = myFixture.addClass("package cache;\npublic class Level0 {}");
+    myFixture.addClass("package cache;\npublic class Level1 extends Level0 {}");
+    myFixture.addClass("package cache;\npublic class Facade extends Level1 {}");
+    PsiJavaFile facadeTest = (PsiJavaFile) myFixture.configureByText("FacadeTest.java", "package cache;\n\nclass FacadeTest {\n}\n");
+    assertDoesntContain(fieldNames(planner.plan(facadeTest)), "repository");
+
+    long misses = cache.getMissCount();
+    PsiDocumentManager documentManager = PsiDocumentManager.getInstance(getProject());
+    Document document = documentManager.getDocument(level0.getContainingFile());
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      document.setText("package cache;\npublic class Level0 {\n  protected Repository repository;\n}");
+      documentManager.commitDocument(document);
+    });
+
+    assertContainsElements(fieldNames(planner.plan(facadeTest)), "repository");
+    assertEquals(misses + 1, cache.getMissCount());
+  }
+
+  public void testAnalysisIsMadeAgainOnceAnUnresolvedTypeIsCreated() {
+    myFixture.addClass("""
+            package cache;
+
+            public class Notifier {
+              private Gateway gateway;
+            }
+            """);
+    PsiJavaFile notifierTest = (PsiJavaFile) myFixture.configureByText("NotifierTest.java", "package cache;\n\nclass NotifierTest {\n}\n");
+    planner.plan(notifierTest);
+    planner.plan(notifierTest);
+
+    long misses = cache.getMissCount();
+    myFixture.addClass("package cache;\npublic class Gateway {}");
+
+    assertContainsElements(fieldNames(planner.plan(notifierTest)), "gateway");
+    assertEquals(misses + 1, cache.getMissCount());
+  }
+
+  private static List<String> fieldNames(GenerationPlan plan) {
+    return plan.getTestClass().getFields().stream().map(FieldPlan::getName).toList();
+  }
+
+  private static String describe(GenerationPlan plan) {
+    StringBuilder builder = new StringBuilder();
+    plan.getTestClass().getFields().forEach(field -> builder.append(field.getName()).append('\n'));
+    plan.getNestedClasses().forEach(nestedClass -> {
+      builder.append(nestedClass.getName()).append('\n');
+      nestedClass.getFields().forEach(field -> builder.append("  ").append(field.getName()).append('\n'));
+    });
+    plan.getClassImports().forEach(classImport -> builder.append(classImport).append('\n'));
+    return builder.toString();
+  }
+}
@@ -0,0 +1,86 @@
+package com.pelletier197.plugin.codegen.analysis;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiModifier;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Ensures that the cached members of a deep hierarchy match the ones read from the PSI, are shared by the subclasses
+ * of a common base class, and are dropped when the hierarchy changes.
+ */
+public class ClassMembersTest extends LightJavaCodeInsightFixtureTestCase {
+  private static final int HIERARCHY_DEPTH = 6;
+
+  private PsiClass root;
+  private PsiClass base;
+  private PsiClass userService;
+  private PsiClass orderService;
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    root = myFixture.addClass("package hierarchy;\npublic abstract class Base0 {\n  private String name0;\n}");
+    for (int i = 1; i < HIERARCHY_DEPTH; i++) {
+      base = myFixture.addClass("package hierarchy;\npublic abstract class Base" + i + " extends Base" + (i - 1) + " {\n"
+              + "  private static final String CONSTANT" + i + " = \"\";\n"
+              + "  protected Object dependency" + i + ";\n"
+              + "}");
+    }
+    userService = myFixture.addClass("package hierarchy;\npublic class UserService extends Base5 {\n  private Object users;\n  public void find() {}\n  public void setUsers(Object users) {}\n}");
+    orderService = myFixture.addClass("package hierarchy;\npublic class OrderService extends Base5 {\n  private Object orders;\n  private void cancel() {}\n}");
+  }
+
+  public void testFieldsMatchTheNonStaticFieldsOfTheHierarchy() {
+    List<String> expected = Stream.of(userService.getAllFields())
+            .filter(field -> !field.hasModifierProperty(PsiModifier.STATIC))
+            .map(PsiField::getName)
+            .toList();
+
+    assertEquals(expected, names(ClassMembers.of(userService)));
+    assertEquals(List.of("find"), ClassMembers.of(userService).getMethods().stream().map(method -> method.getName()).toList());
+    assertEmpty(ClassMembers.of(orderService).getMethods());
+  }
+
+  public void testMembersOfABaseClassAreSharedBySubclasses() {
+    ClassMembers baseMembers = ClassMembers.of(base);
+    ClassMembers.of(userService);
+    ClassMembers.of(orderService);
+
+    assertSame(baseMembers, ClassMembers.of(base));
+    assertEquals(names(baseMembers), names(ClassMembers.of(userService)).subList(1, HIERARCHY_DEPTH + 1));
+    assertEquals(names(baseMembers), names(ClassMembers.of(orderService)).subList(1, HIERARCHY_DEPTH + 1));
+  }
+
+  public void testMembersAreDroppedWhenTheHierarchyChanges() {
+    ClassMembers before = ClassMembers.of(userService);
+
+    PsiDocumentManager documentManager = PsiDocumentManager.getInstance(getProject());
+    Document document = documentManager.getDocument(root.getContainingFile());
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      document.setText("package hierarchy;\npublic abstract class Base0 {\n  private String name0;\n  private String added;\n}");
+      documentManager.commitDocument(document);
+    });
+
+    ClassMembers after = ClassMembers.of(userService);
+    assertNotSame(before, after);
+    assertContainsElements(names(after), "added");
+  }
+
+  private static List<String> names(ClassMembers members) {
+    return members.getFields().stream().map(PsiField::getName).toList();
+  }
+}
@@ -0,0 +1,54 @@
+package com.pelletier197.plugin.codegen.analysis;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.psi.PsiClass;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+/**
+ * Ensures that the methods analysed concurrently are merged in their declaration order.
+ */
+public class UnderTestAnalyzerTest extends LightJavaCodeInsightFixtureTestCase {
+  private static final int METHOD_COUNT = 200;
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  public void testMethodsAreAnalysedInDeclarationOrder() throws Exception {
+    myFixture.addClass("package parallel;\npublic class Repository {}");
+    PsiClass facade = myFixture.addClass(createFacade());
+
+    Future<UnderTestAnalysis> future = ReadAction.nonBlocking(() -> new UnderTestAnalyzer(getProject()).analyse(facade))
+            .submit(AppExecutorUtil.getAppExecutorService());
+    UnderTestAnalysis analysis = PlatformTestUtil.waitForFuture(future, 60_000);
+
+    List<String> expectedNames = IntStream.range(0, METHOD_COUNT).mapToObj(i -> "process" + i).toList();
+    assertEquals(expectedNames, analysis.getMethods().stream().map(AnalysedMethod::getName).toList());
+    for (int i = 0; i < METHOD_COUNT; i++) {
+      List<String> parameterNames = new ArrayList<>();
+      analysis.getMethods().get(i).getParameters().forEach(parameter -> parameterNames.add(parameter.getName()));
+      assertEquals(List.of("repository" + i, "count" + i), parameterNames);
+    }
+  }
+
+  private static String createFacade() {
+    StringBuilder builder = new StringBuilder("package parallel;\n\npublic class Facade {\n");
+    for (int i = 0; i < METHOD_COUNT; i++) {
+      builder.append("  public void process").append(i)
+              .append("(Repository repository").append(i)
+              .append(", int count").append(i)
+              .append(") {}\n");
+    }
+    return builder.append("}\n").toString();
+  }
+}
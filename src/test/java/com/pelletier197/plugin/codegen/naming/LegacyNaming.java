@@ -0,0 +1,74 @@
+package com.pelletier197.plugin.codegen.naming;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * The naming logic as it was implemented in the injectors before {@link NamingEngine}, kept to check that both give
+ * the same names and to compare them in the benchmarks.
+ */
+final class LegacyNaming {
+
+  private LegacyNaming() {
+  }
+
+  static String whenClassName(String methodName) {
+    int indexOfFirstCapital = findIndexOfFirstUppercase(methodName);
+    String verb = methodName.substring(0, indexOfFirstCapital);
+    String restOfMethodName = methodName.substring(indexOfFirstCapital);
+    return String.format("%s%s%s", "When", toActionVerbCapitalized(verb), restOfMethodName);
+  }
+
+  static String constantName(String variableOriginalName) {
+    StringBuilder constantFieldNameBuilder = new StringBuilder().append(Character.toUpperCase(variableOriginalName.charAt(0)));
+    for (int i = 1; i < variableOriginalName.length(); i++) {
+      char current = variableOriginalName.charAt(i);
+      if (Character.isUpperCase(current)) {
+        constantFieldNameBuilder.append("_").append(current);
+      } else {
+        constantFieldNameBuilder.append(Character.toUpperCase(current));
+      }
+    }
+    return constantFieldNameBuilder.toString();
+  }
+
+  static String fieldName(String suggestedName) {
+    return Character.toLowerCase(suggestedName.charAt(0)) + suggestedName.substring(1);
+  }
+
+  private static String toActionVerbCapitalized(String verb) {
+    if (verb.length() == 1) {
+      return Character.toUpperCase(verb.charAt(0)) + "ing";
+    }
+
+    if (Stream.of("is", "can", "has").anyMatch(verb::startsWith)) {
+      return "CheckingIf" + Character.toUpperCase(verb.charAt(0)) + verb.substring(1);
+    }
+
+    String lastTwoLetters = verb.substring(verb.length() - 2);
+    String lastLetter = lastTwoLetters.substring(1);
+
+    if (Arrays.asList("ee", "ye", "oe").contains(lastTwoLetters)) {
+      return Character.toUpperCase(verb.charAt(0)) + verb.substring(1) + "ing";
+    }
+
+    if (lastLetter.equals("e")) {
+      return Character.toUpperCase(verb.charAt(0)) + verb.substring(1, verb.length() - 1) + "ing";
+    }
+
+    if (Arrays.asList("get", "commit").contains(verb.toLowerCase())) {
+      return Character.toUpperCase(verb.charAt(0)) + verb.substring(1) + verb.charAt(verb.length() - 1) + "ing";
+    }
+
+    return Character.toUpperCase(verb.charAt(0)) + verb.substring(1) + "ing";
+  }
+
+  private static int findIndexOfFirstUppercase(String string) {
+    for (int i = 0; i < string.length(); i++) {
+      if (Character.isUpperCase(string.charAt(i))) {
+        return i;
+      }
+    }
+    return string.length();
+  }
+}
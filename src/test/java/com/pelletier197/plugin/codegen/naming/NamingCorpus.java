@@ -0,0 +1,48 @@
+package com.pelletier197.plugin.codegen.naming;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Method and variable names as found in typical classes under test, shared by the tests and the benchmarks.
+ */
+final class NamingCorpus {
+
+  static final List<String> METHOD_NAMES = List.of(
+          "getUser", "getId", "findAllByStatus", "findById", "save", "saveAll", "delete", "deleteById", "update",
+          "updateStatus", "create", "createOrder", "isValid", "isEmpty", "canProcess", "hasNext", "hasPermission",
+          "commit", "commitTransaction", "process", "processPayment", "execute", "handle", "handleEvent", "apply",
+          "toDto", "fromEntity", "see", "seeOther", "agree", "dye", "hoe", "issueRefund", "cancelOrder",
+          "hashPassword", "x", "run", "validateInput", "computeTotal", "sendEmail", "loadConfiguration", "publish",
+          "register", "unregister", "close", "map", "mapToResponse", "build", "parse", "resolveAddress",
+          "calculateTaxes", "authenticate", "authorize", "refresh", "retry", "schedule", "notifyListeners"
+  );
+
+  static final List<String> VARIABLE_NAMES = List.of(
+          "id", "name", "userId", "userName", "createdAt", "updatedAt", "maxRetryCount", "isActive", "url",
+          "httpClient", "a", "amount", "totalAmountInCents", "expirationDate", "status", "orderStatus", "count",
+          "pageSize", "pageNumber", "identifiers", "emailAddress", "zoneId", "timestamp", "uuid", "value"
+  );
+
+  static final List<String> SUGGESTED_FIELD_NAMES = List.of(
+          "UserRepository", "userRepository", "Clock", "HttpClient", "objectMapper", "EventPublisher", "Mapper"
+  );
+
+  private NamingCorpus() {
+  }
+
+  /**
+   * @return identifiers made of random letters, starting with a lower case letter.
+   */
+  static List<String> randomIdentifiers(int count, long seed) {
+    Random random = new Random(seed);
+    return random.ints(count, 1, 20).mapToObj(length -> {
+      StringBuilder builder = new StringBuilder().append((char) ('a' + random.nextInt(26)));
+      for (int i = 1; i < length; i++) {
+        char letter = (char) ('a' + random.nextInt(26));
+        builder.append(random.nextInt(4) == 0 ? Character.toUpperCase(letter) : letter);
+      }
+      return builder.toString();
+    }).toList();
+  }
+}
@@ -0,0 +1,62 @@
+package com.pelletier197.plugin.codegen.naming;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class NamingEngineTest {
+
+  @Test
+  void whenClassNameMatchesTheLegacyNaming() {
+    assertSameNames(NamingCorpus.METHOD_NAMES, NamingEngine::whenClassName, LegacyNaming::whenClassName);
+    assertSameNames(NamingCorpus.randomIdentifiers(10_000, 42), NamingEngine::whenClassName, LegacyNaming::whenClassName);
+  }
+
+  @Test
+  void constantNameMatchesTheLegacyNaming() {
+    assertSameNames(NamingCorpus.VARIABLE_NAMES, NamingEngine::constantName, LegacyNaming::constantName);
+    assertSameNames(NamingCorpus.randomIdentifiers(10_000, 43), NamingEngine::constantName, LegacyNaming::constantName);
+  }
+
+  @Test
+  void fieldNameMatchesTheLegacyNaming() {
+    assertSameNames(NamingCorpus.SUGGESTED_FIELD_NAMES, NamingEngine::fieldName, LegacyNaming::fieldName);
+  }
+
+  @Test
+  void whenClassName() {
+    assertEquals("WhenGettingUser", NamingEngine.whenClassName("getUser"));
+    assertEquals("WhenCommittingTransaction", NamingEngine.whenClassName("commitTransaction"));
+    assertEquals("WhenSaving", NamingEngine.whenClassName("save"));
+    assertEquals("WhenSeeingOther", NamingEngine.whenClassName("seeOther"));
+    assertEquals("WhenCheckingIfIsValid", NamingEngine.whenClassName("isValid"));
+    assertEquals("WhenXing", NamingEngine.whenClassName("x"));
+  }
+
+  @Test
+  void whenClassNameOfMethodStartingWithAnUpperCaseLetterHasNoVerb() {
+    assertEquals("WhenProcess", NamingEngine.whenClassName("Process"));
+  }
+
+  @Test
+  void constantName() {
+    assertEquals("MAX_RETRY_COUNT", NamingEngine.constantName("maxRetryCount"));
+    assertEquals("URL", NamingEngine.constantName("url"));
+  }
+
+  @Test
+  void fieldNameReturnsTheSuggestedNameWhenAlreadyLowerCase() {
+    String suggestedName = "userRepository";
+    assertSame(suggestedName, NamingEngine.fieldName(suggestedName));
+  }
+
+  private static void assertSameNames(List<String> names, UnaryOperator<String> engine, UnaryOperator<String> legacy) {
+    for (String name : names) {
+      assertEquals(legacy.apply(name), engine.apply(name), name);
+    }
+  }
+}
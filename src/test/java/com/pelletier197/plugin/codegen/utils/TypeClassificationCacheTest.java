@@ -0,0 +1,91 @@
+package com.pelletier197.plugin.codegen.utils;
+
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiType;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.pelletier197.plugin.codegen.utils.TypeClassificationCache.TypeKind;
+import com.pelletier197.plugin.settings.MockitoGenSettings;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+public class TypeClassificationCacheTest extends LightJavaCodeInsightFixtureTestCase {
+  private TypeClassificationCache cache;
+  private PsiElementFactory elementFactory;
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    cache = TypeClassificationCache.getInstance(getProject());
+    elementFactory = JavaPsiFacade.getElementFactory(getProject());
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      MockitoGenSettings.getInstance(getProject()).setCustomValues(Map.of());
+    } catch (Throwable e) {
+      addSuppressedException(e);
+    } finally {
+      super.tearDown();
+    }
+  }
+
+  public void testClassifiesATypeOnceUntilTheJavaStructureChanges() {
+    PsiType repository = elementFactory.createType(myFixture.addClass("package types;\npublic class Repository {}"));
+    long hits = cache.getHitCount();
+    long misses = cache.getMissCount();
+
+    assertEquals(TypeKind.MOCKABLE, cache.classify(repository));
+    assertEquals(TypeKind.MOCKABLE, cache.classify(repository));
+    assertEquals(misses + 1, cache.getMissCount());
+    assertEquals(hits + 1, cache.getHitCount());
+
+    myFixture.addClass("package types;\npublic class Gateway {}");
+
+    assertEquals(TypeKind.MOCKABLE, cache.classify(repository));
+    assertEquals(misses + 2, cache.getMissCount());
+  }
+
+  public void testClassifiesATypeAgainOnceTheSupportedValuesChange() {
+    PsiType money = elementFactory.createType(myFixture.addClass("package types;\npublic class Money {}"));
+    assertEquals(TypeKind.MOCKABLE, cache.classify(money));
+
+    MockitoGenSettings.getInstance(getProject()).setCustomValues(Map.of("types.Money", "new Money()"));
+
+    assertEquals(TypeKind.VALUE, cache.classify(money));
+  }
+
+  public void testClassesWithTheSameNameAreClassifiedSeparately() {
+    PsiClass finalValue = ((PsiJavaFile) myFixture.addFileToProject("first/types/Value.java",
+            "package types;\npublic final class Value {}")).getClasses()[0];
+    PsiClass openValue = ((PsiJavaFile) myFixture.addFileToProject("second/types/Value.java",
+            "package types;\npublic class Value {}")).getClasses()[0];
+    PsiType finalType = elementFactory.createType(finalValue);
+    PsiType openType = elementFactory.createType(openValue);
+    assertEquals(finalType.getCanonicalText(), openType.getCanonicalText());
+
+    assertEquals(TypeKind.UNSUPPORTED, cache.classify(finalType));
+    assertEquals(TypeKind.MOCKABLE, cache.classify(openType));
+  }
+
+  public void testTypesWithoutClassAreKeyedByTheirText() {
+    assertEquals(TypeKind.VALUE, cache.classify(PsiType.INT));
+    long hits = cache.getHitCount();
+    long misses = cache.getMissCount();
+
+    assertEquals(TypeKind.VALUE, cache.classify(PsiType.INT));
+
+    assertEquals(hits + 1, cache.getHitCount());
+    assertEquals(misses, cache.getMissCount());
+  }
+}
@@ -0,0 +1,126 @@
+package com.pelletier197.plugin.codegen.value;
+
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.ExtensionTestUtil;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.pelletier197.plugin.codegen.GenerationPlanner;
+import com.pelletier197.plugin.codegen.plan.FieldPlan;
+import com.pelletier197.plugin.codegen.plan.GenerationPlan;
+import com.pelletier197.plugin.settings.MockitoGenSettings;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Ensures that the constants are valued by the default providers, the extensions and the custom values of the project
+ * settings, in this order of precedence.
+ */
+public class ValueProviderRegistryTest extends LightJavaCodeInsightFixtureTestCase {
+
+  private PsiJavaFile testFile;
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myFixture.addClass("package registry;\npublic enum Status { ACTIVE, INACTIVE }");
+    myFixture.addClass("package registry;\npublic record Point(int x, String label) {}");
+    myFixture.addClass("package registry;\npublic class Money {\n  public static Money of(int amount) { return new Money(); }\n}");
+    myFixture.addClass("""
+            package registry;
+
+            import java.math.BigDecimal;
+            import java.time.Duration;
+            import java.time.LocalDate;
+            import java.util.Optional;
+
+            public class Service {
+              private BigDecimal amount;
+              private LocalDate date;
+              private Duration timeout;
+              private Optional<String> nickname;
+              private Status status;
+              private Point origin;
+              private Money price;
+            }
+            """);
+    testFile = (PsiJavaFile) myFixture.configureByText("ServiceTest.java", "package registry;\n\nclass ServiceTest {\n}\n");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      MockitoGenSettings.getInstance(getProject()).setCustomValues(Map.of());
+    } finally {
+      super.tearDown();
+    }
+  }
+
+  public void testDefaultValuesOfTheSupportedTypes() {
+    GenerationPlan plan = new GenerationPlanner().plan(testFile);
+    Map<String, String> fields = fieldTexts(plan);
+
+    assertTrue(fields.get("AMOUNT").startsWith("private static final BigDecimal AMOUNT = BigDecimal.valueOf("));
+    assertEquals("private static final LocalDate DATE = LocalDate.now();", fields.get("DATE"));
+    assertTrue(fields.get("TIMEOUT").startsWith("private static final Duration TIMEOUT = Duration.ofSeconds("));
+    assertEquals("private static final Optional<String> NICKNAME = Optional.empty();", fields.get("NICKNAME"));
+    assertEquals("private static final Status STATUS = Status.ACTIVE;", fields.get("STATUS"));
+    assertTrue(fields.get("ORIGIN").startsWith("private static final Point ORIGIN = new Point("));
+    assertTrue(fields.get("ORIGIN").endsWith(", \"label\");"));
+    assertEquals("@Mock private registry.Money price;", fields.get("price"));
+    assertTrue(plan.getClassImports().containsAll(List.of("java.math.BigDecimal", "java.time.Duration", "java.util.Optional", "registry.Point")));
+  }
+
+  public void testLongValuesAreSuffixedLiterals() {
+    myFixture.addClass("package registry;\npublic class Counter {\n  private Long total;\n  private long count;\n}");
+    PsiJavaFile counterTestFile = (PsiJavaFile) myFixture.configureByText("CounterTest.java", "package registry;\n\nclass CounterTest {\n}\n");
+
+    Map<String, String> fields = fieldTexts(new GenerationPlanner().plan(counterTestFile));
+
+    assertTrue(fields.get("TOTAL"), fields.get("TOTAL").matches("private static final (java\\.lang\\.)?Long TOTAL = \\d+L;"));
+    assertTrue(fields.get("COUNT"), fields.get("COUNT").matches("private static final long COUNT = \\d+L;"));
+  }
+
+  public void testExtensionsTakePrecedenceOverTheDefaultValues() {
+    ExtensionTestUtil.maskExtensions(ValueProvider.EP_NAME, List.of(new ZeroDurationProvider(), new DefaultValueProvider()), getTestRootDisposable());
+
+    Map<String, String> fields = fieldTexts(new GenerationPlanner().plan(testFile));
+
+    assertEquals("private static final Duration TIMEOUT = Duration.ZERO;", fields.get("TIMEOUT"));
+  }
+
+  public void testCustomValuesOfTheSettingsTurnMocksIntoConstants() {
+    MockitoGenSettings.getInstance(getProject()).setCustomValues(Map.of("registry.Money", "Money.of(10)"));
+
+    GenerationPlan plan = new GenerationPlanner().plan(testFile);
+    Map<String, String> fields = fieldTexts(plan);
+
+    assertEquals("private static final Money PRICE = Money.of(10);", fields.get("PRICE"));
+    assertFalse(fields.containsKey("price"));
+    assertTrue(plan.getClassImports().contains("registry.Money"));
+  }
+
+  private static Map<String, String> fieldTexts(GenerationPlan plan) {
+    return plan.getTestClass().getFields().stream().collect(Collectors.toMap(FieldPlan::getName, FieldPlan::getText));
+  }
+
+  private static final class ZeroDurationProvider implements ValueProvider {
+    @Override
+    public Collection<String> getSupportedTypes() {
+      return List.of("java.time.Duration");
+    }
+
+    @Override
+    public GeneratedValue provide(ValueRequest request) {
+      return GeneratedValue.of("Duration.ZERO", "java.time.Duration");
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package com.pelletier197.plugin.headless;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.pelletier197.plugin.bulk.BulkGenerationResult;
+import com.pelletier197.plugin.bulk.BulkGenerationResult.FileResult;
+import com.pelletier197.plugin.bulk.BulkGenerationResult.Status;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MockitoGenApplicationStarterTest {
+  private static final String COMMAND = MockitoGenApplicationStarter.COMMAND_NAME;
+
+  @Test
+  void parsesTheModeAndTheProjectPath() {
+    MockitoGenApplicationStarter.Arguments arguments = MockitoGenApplicationStarter.Arguments.parse(List.of(COMMAND, "check", "project"));
+
+    assertTrue(arguments.isCheck());
+    assertEquals(Path.of("project").toAbsolutePath().normalize(), arguments.getProjectPath());
+    assertNull(arguments.getReportPath());
+    assertTrue(arguments.getPaths().isEmpty());
+  }
+
+  @Test
+  void parsesTheReportAndThePaths() {
+    MockitoGenApplicationStarter.Arguments arguments = MockitoGenApplicationStarter.Arguments.parse(
+            List.of(COMMAND, "apply", "project", "--path", "core/src/test", "--report", "report.json", "--path", "api/src/test"));
+
+    assertFalse(arguments.isCheck());
+    assertEquals(Path.of("report.json").toAbsolutePath(), arguments.getReportPath());
+    assertEquals(List.of(Path.of("core/src/test"), Path.of("api/src/test")), arguments.getPaths());
+  }
+
+  @Test
+  void rejectsInvalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> MockitoGenApplicationStarter.Arguments.parse(List.of(COMMAND, "apply")));
+    assertThrows(IllegalArgumentException.class, () -> MockitoGenApplicationStarter.Arguments.parse(List.of(COMMAND, "generate", "project")));
+    assertThrows(IllegalArgumentException.class, () -> MockitoGenApplicationStarter.Arguments.parse(List.of(COMMAND, "apply", "project", "--report")));
+    assertThrows(IllegalArgumentException.class, () -> MockitoGenApplicationStarter.Arguments.parse(List.of(COMMAND, "apply", "project", "--verbose", "true")));
+  }
+
+  @Test
+  void checkFailsOnlyWhenCodeIsMissingOrAFileFailed() {
+    assertEquals(MockitoGenApplicationStarter.SUCCESS_EXIT_CODE, MockitoGenApplicationStarter.getExitCode(true, result(Status.UNCHANGED)));
+    assertEquals(MockitoGenApplicationStarter.CHECK_FAILED_EXIT_CODE, MockitoGenApplicationStarter.getExitCode(true, result(Status.UNCHANGED, Status.MISSING)));
+    assertEquals(MockitoGenApplicationStarter.CHECK_FAILED_EXIT_CODE, MockitoGenApplicationStarter.getExitCode(true, result(Status.FAILED)));
+  }
+
+  @Test
+  void applyFailsOnlyWhenAFileFailed() {
+    assertEquals(MockitoGenApplicationStarter.SUCCESS_EXIT_CODE, MockitoGenApplicationStarter.getExitCode(false, result(Status.CHANGED, Status.UNCHANGED)));
+    assertEquals(MockitoGenApplicationStarter.CHECK_FAILED_EXIT_CODE, MockitoGenApplicationStarter.getExitCode(false, result(Status.CHANGED, Status.FAILED)));
+  }
+
+  @Test
+  void reportHoldsTheSummaryAndEachFile() {
+    BulkGenerationResult result = new BulkGenerationResult(List.of(
+            new FileResult("/project/FacadeTest.java", Status.MISSING, 2_000_000, 0, null),
+            new FileResult("/project/BrokenTest.java", Status.FAILED, 1_500_000, 0, "Broken")
+    ), false);
+
+    JsonObject report = JsonParser.parseString(MockitoGenApplicationStarter.createReport(true, result, 10_000_000)).getAsJsonObject();
+
+    assertEquals("check", report.get("mode").getAsString());
+    assertEquals(10.0, report.get("totalMillis").getAsDouble());
+    assertFalse(report.get("cancelled").getAsBoolean());
+
+    JsonObject summary = report.getAsJsonObject("summary");
+    assertEquals(Status.values().length, summary.size());
+    assertEquals(1, summary.get("missing").getAsInt());
+    assertEquals(1, summary.get("failed").getAsInt());
+    assertEquals(0, summary.get("changed").getAsInt());
+
+    JsonArray files = report.getAsJsonArray("files");
+    assertEquals(2, files.size());
+    JsonObject missing = files.get(0).getAsJsonObject();
+    assertEquals("/project/FacadeTest.java", missing.get("path").getAsString());
+    assertEquals("MISSING", missing.get("status").getAsString());
+    assertEquals(2.0, missing.get("analysisMillis").getAsDouble());
+    assertEquals(0.0, missing.get("writeMillis").getAsDouble());
+    assertFalse(missing.has("error"));
+    assertEquals("Broken", files.get(1).getAsJsonObject().get("error").getAsString());
+  }
+
+  private static BulkGenerationResult result(Status... statuses) {
+    List<FileResult> files = new ArrayList<>();
+    for (int i = 0; i < statuses.length; i++) {
+      files.add(new FileResult("/project/Test" + i + ".java", statuses[i], 0, 0, null));
+    }
+    return new BulkGenerationResult(files, false);
+  }
+}
@@ -0,0 +1,95 @@
+package com.pelletier197.plugin.index;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Navigates between classes and the scenarios targeting them through an <code>@InjectMocks</code> field, which do
+ * not follow the naming convention of the tests, so that they are only found through the {@link TestedClassIndex}.
+ */
+public class MockitoTestFinderTest extends LightJavaCodeInsightFixtureTestCase {
+  private final MockitoTestFinder finder = new MockitoTestFinder();
+
+  private PsiClass checkout;
+  private PsiClass inventory;
+  private PsiClass payment;
+  private PsiClass refund;
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myFixture.addClass("package org.mockito;\npublic @interface InjectMocks {}");
+    checkout = myFixture.addClass("package shop;\npublic class Checkout {}");
+    inventory = myFixture.addClass("package shop.stock;\npublic class Inventory {}");
+    payment = myFixture.addClass("package shop.billing;\npublic class Payment {}");
+    refund = myFixture.addClass("package shop.billing;\npublic class Payments {\n  public static class Refund {}\n}")
+            .findInnerClassByName("Refund", false);
+    myFixture.addClass("package shop.other;\npublic class Payment {}");
+  }
+
+  public void testFindsTheScenariosOfAClassOfTheSamePackage() {
+    PsiClass scenario = addScenario("shop", "", "Checkout");
+
+    assertSameElements(finder.findTestsForClass(checkout), scenario);
+    assertSameElements(finder.findClassesForTest(scenario), checkout);
+  }
+
+  public void testFindsTheScenariosOfAClassImportedByName() {
+    PsiClass scenario = addScenario("shop", "import shop.stock.Inventory;\n", "Inventory");
+
+    assertSameElements(finder.findTestsForClass(inventory), scenario);
+    assertSameElements(finder.findClassesForTest(scenario), inventory);
+  }
+
+  public void testFindsTheScenariosOfAClassImportedOnDemand() {
+    PsiClass scenario = addScenario("shop", "import shop.billing.*;\n", "Payment");
+
+    assertSameElements(finder.findTestsForClass(payment), scenario);
+    assertSameElements(finder.findClassesForTest(scenario), payment);
+  }
+
+  public void testFindsTheScenariosOfANestedClass() {
+    PsiClass scenario = addScenario("shop", "import shop.billing.Payments;\n", "Payments.Refund");
+
+    assertSameElements(TestedClassIndex.findTestFiles(getProject(), refund.getQualifiedName()), scenario.getContainingFile().getVirtualFile());
+    assertSameElements(finder.findClassesForTest(scenario), refund);
+  }
+
+  public void testOnlyFindsTheScenariosOfTheClassTheirFieldResolvesTo() {
+    PsiClass otherPayment = myFixture.findClass("shop.other.Payment");
+    PsiClass scenario = addScenario("shop.other", "import shop.billing.*;\n", "Payment");
+
+    assertSameElements(finder.findTestsForClass(otherPayment), scenario);
+    assertEmpty(finder.findTestsForClass(payment));
+    assertSameElements(finder.findClassesForTest(scenario), otherPayment);
+  }
+
+  public void testFindsTheTestsNamedAfterTheClass() {
+    PsiClass test = ((PsiJavaFile) myFixture.addFileToProject("shop/CheckoutTest.java", "package shop;\n\nclass CheckoutTest {\n}\n"))
+            .getClasses()[0];
+
+    assertSameElements(finder.findTestsForClass(checkout), test);
+    assertSameElements(finder.findClassesForTest(test), checkout);
+  }
+
+  private PsiClass addScenario(String packageName, String imports, String injectedType) {
+    String name = injectedType.replace(".", "") + "Scenarios";
+    PsiJavaFile file = (PsiJavaFile) myFixture.addFileToProject(packageName.replace('.', '/') + "/" + name + ".java",
+            "package " + packageName + ";\n\n"
+                    + imports
+                    + "import org.mockito.InjectMocks;\n\n"
+                    + "class " + name + " {\n"
+                    + "  @InjectMocks\n"
+                    + "  private " + injectedType + " underTest;\n"
+                    + "}\n");
+    return file.getClasses()[0];
+  }
+}
@@ -0,0 +1,125 @@
+package com.pelletier197.plugin.livesync;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.pelletier197.plugin.codegen.utils.MockitoPluginUtils;
+import com.pelletier197.plugin.settings.MockitoGenSettings;
+import org.jetbrains.annotations.NotNull;
+
+public class LiveSyncServiceTest extends LightJavaCodeInsightFixtureTestCase {
+  private static final int SYNC_TIMEOUT_SECONDS = 30;
+
+  private static final String GENERATED_TEST_TEXT = """
+          package sync;
+
+          import org.junit.jupiter.api.extension.ExtendWith;
+          import org.mockito.junit.jupiter.MockitoExtension;
+
+          @ExtendWith(MockitoExtension.class)
+          class ServiceTest {
+          }
+          """;
+  private static final String HANDWRITTEN_TEST_TEXT = "package sync;\n\nclass ServiceIT {\n}\n";
+
+  private PsiClass underTestClass;
+
+  @Override
+  protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+    return JAVA_17;
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myFixture.addClass("package org.junit.jupiter.api.extension;\npublic @interface ExtendWith { Class<?>[] value(); }");
+    myFixture.addClass("package org.mockito.junit.jupiter;\npublic class MockitoExtension {}");
+    myFixture.addClass("package sync;\npublic class Repository {}");
+    underTestClass = myFixture.addClass("package sync;\npublic class Service {\n}");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      MockitoGenSettings.getInstance(getProject()).setLiveSync(false);
+      LiveSyncService.getInstance(getProject()).cancelPendingSyncs();
+    } catch (Throwable e) {
+      addSuppressedException(e);
+    } finally {
+      super.tearDown();
+    }
+  }
+
+  public void testEditsAreIgnoredWhileTheLiveSyncIsDisabled() {
+    MockitoGenSettings.getInstance(getProject()).setLiveSync(false);
+
+    addRepositoryField();
+
+    assertEmpty(LiveSyncService.getInstance(getProject()).getPendingFiles());
+  }
+
+  public void testEditsOfAProductionFileAreRecordedOnceTheLiveSyncIsEnabled() {
+    MockitoGenSettings.getInstance(getProject()).setLiveSync(true);
+
+    addRepositoryField();
+
+    assertSameElements(LiveSyncService.getInstance(getProject()).getPendingFiles(), underTestClass.getContainingFile().getVirtualFile());
+  }
+
+  public void testTheListenerIsOnlyGatedOpenWhileTheLiveSyncIsEnabled() {
+    MockitoGenSettings settings = MockitoGenSettings.getInstance(getProject());
+
+    settings.setLiveSync(true);
+    settings.setLiveSync(true);
+    assertTrue(MockitoGenSettings.isLiveSyncEnabledInAnyProject());
+
+    settings.setLiveSync(false);
+    assertFalse(MockitoGenSettings.isLiveSyncEnabledInAnyProject());
+  }
+
+  public void testCancellingDropsThePendingSyncs() {
+    MockitoGenSettings.getInstance(getProject()).setLiveSync(true);
+    addRepositoryField();
+
+    LiveSyncService service = LiveSyncService.getInstance(getProject());
+    service.cancelPendingSyncs();
+
+    assertEmpty(service.getPendingFiles());
+    assertEquals(0, service.getScheduledSyncCount());
+  }
+
+  public void testSuccessiveEditsAreDebouncedIntoASingleSync() {
+    PsiClass otherClass = myFixture.addClass("package sync;\npublic class Other {\n}");
+    LiveSyncService service = LiveSyncService.getInstance(getProject());
+
+    service.onUnderTestFileChanged(underTestClass.getContainingFile().getVirtualFile());
+    service.onUnderTestFileChanged(otherClass.getContainingFile().getVirtualFile());
+    service.onUnderTestFileChanged(underTestClass.getContainingFile().getVirtualFile());
+
+    assertEquals(1, service.getScheduledSyncCount());
+    assertSameElements(service.getPendingFiles(),
+            underTestClass.getContainingFile().getVirtualFile(), otherClass.getContainingFile().getVirtualFile());
+  }
+
+  public void testOnlyTheGeneratedTestClassesAreSynced() {
+    PsiJavaFile generatedTest = (PsiJavaFile) myFixture.addFileToProject("sync/ServiceTest.java", GENERATED_TEST_TEXT);
+    PsiJavaFile handwrittenTest = (PsiJavaFile) myFixture.addFileToProject("sync/ServiceIT.java", HANDWRITTEN_TEST_TEXT);
+    MockitoGenSettings.getInstance(getProject()).setLiveSync(true);
+
+    addRepositoryField();
+
+    PlatformTestUtil.waitWithEventsDispatching("The generated test class was not synced",
+            () -> MockitoPluginUtils.getUnitTestClass(generatedTest).findFieldByName("repository", false) != null,
+            SYNC_TIMEOUT_SECONDS);
+    assertEquals(HANDWRITTEN_TEST_TEXT, handwrittenTest.getText());
+  }
+
+  private void addRepositoryField() {
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> underTestClass.add(
+            JavaPsiFacade.getElementFactory(getProject()).createFieldFromText("private Repository repository;", underTestClass)));
+  }
+}
@@ -0,0 +1,117 @@
+package com.pelletier197.plugin.metrics;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class GenerationMetricsTest extends LightJavaCodeInsightFixtureTestCase {
+  private GenerationMetrics metrics;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    metrics = new GenerationMetrics();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      Disposer.dispose(metrics);
+    } catch (Throwable e) {
+      addSuppressedException(e);
+    } finally {
+      super.tearDown();
+    }
+  }
+
+  public void testNothingIsRecordedWhileDisabled() {
+    metrics.setEnabled(false);
+
+    metrics.startSpan("phase").close();
+    metrics.count(GenerationMetrics.ELEMENTS_INSERTED, 3);
+
+    assertEmpty(metrics.getPhaseStatistics());
+    assertEmpty(metrics.getCounters().keySet());
+  }
+
+  public void testSpansAndCountersAreRecordedOnceEnabled() {
+    metrics.setEnabled(true);
+
+    metrics.startSpan("second").close();
+    metrics.startSpan("first").close();
+    metrics.startSpan("first").close();
+    metrics.count(GenerationMetrics.ELEMENTS_INSERTED, 3);
+    metrics.count(GenerationMetrics.ELEMENTS_INSERTED, 2);
+    metrics.count(GenerationMetrics.CLASSES_RESOLVED, 0);
+
+    List<PhaseStatistics> statistics = metrics.getPhaseStatistics();
+    assertEquals(List.of("first", "second"), statistics.stream().map(PhaseStatistics::getPhase).toList());
+    assertEquals(2, statistics.get(0).getCount());
+    assertEquals(1, statistics.get(1).getCount());
+    assertEquals(Map.of(GenerationMetrics.ELEMENTS_INSERTED, 5L), metrics.getCounters());
+  }
+
+  public void testNothingIsRecordedByAComputationWithoutRecording() {
+    metrics.setEnabled(true);
+
+    int result = metrics.computeWithoutRecording(() -> {
+      metrics.startSpan("phase").close();
+      metrics.count(GenerationMetrics.ELEMENTS_INSERTED, 3);
+      return 1;
+    });
+    metrics.startSpan("after").close();
+
+    assertEquals(1, result);
+    assertEquals(List.of("after"), metrics.getPhaseStatistics().stream().map(PhaseStatistics::getPhase).toList());
+    assertEmpty(metrics.getCounters().keySet());
+  }
+
+  public void testPercentilesAreComputedOverTheSamples() {
+    for (int i = 100; i >= 1; i--) {
+      metrics.record("phase", i, i * 1024L);
+    }
+
+    PhaseStatistics statistics = metrics.getPhaseStatistics().get(0);
+    assertEquals(100, statistics.getCount());
+    assertEquals(50, statistics.getP50Nanos());
+    assertEquals(95, statistics.getP95Nanos());
+    assertEquals(50 * 1024, statistics.getP50AllocatedBytes());
+    assertEquals(95 * 1024, statistics.getP95AllocatedBytes());
+  }
+
+  public void testClearDropsTheMeasures() {
+    metrics.setEnabled(true);
+    metrics.startSpan("phase").close();
+    metrics.count(GenerationMetrics.CLASSES_RESOLVED, 1);
+
+    metrics.clear();
+
+    assertEmpty(metrics.getPhaseStatistics());
+    assertEmpty(metrics.getCounters().keySet());
+  }
+
+  public void testMeasuresAreWrittenAsJsonLinesWhenDisposed() throws IOException {
+    String phase = "phase-" + UUID.randomUUID();
+    metrics.setEnabled(true);
+    metrics.startSpan(phase).close();
+
+    Disposer.dispose(metrics);
+
+    assertTrue(metrics.getLogFile().getFileName().toString().endsWith(".jsonl"));
+    List<JsonObject> entries = Files.readAllLines(metrics.getLogFile(), StandardCharsets.UTF_8).stream()
+            .map(line -> JsonParser.parseString(line).getAsJsonObject())
+            .filter(entry -> entry.has("phase") && entry.get("phase").getAsString().equals(phase))
+            .toList();
+    assertEquals(1, entries.size());
+    assertTrue(entries.get(0).has("durationNanos"));
+    assertTrue(entries.get(0).has("allocatedBytes"));
+  }
+}